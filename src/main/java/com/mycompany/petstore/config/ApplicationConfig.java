@@ -1,34 +1,66 @@
 package com.mycompany.petstore.config;
 
-import lombok.RequiredArgsConstructor;
+import com.mycompany.petstore.repository.UserRepository;
+import com.mycompany.petstore.security.BCryptCalibration;
+import com.mycompany.petstore.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
-@RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserDetailsService userDetailsService;
-
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
+    @Value("${petstore.password.threads:0}")
+    private int hashThreads;
+
+    @Value("${petstore.password.queue-capacity:64}")
+    private int hashQueueCapacity;
+
+    @Value("${petstore.password.retry-after:1}")
+    private long retryAfterSeconds;
+
+    // 0 calibrates the cost against target-hash-time at startup
+    @Value("${petstore.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${petstore.password.target-hash-time:250ms}")
+    private Duration targetHashTime;
+
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
+        return configuration.getAuthenticationManager();
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : BCryptCalibration.calibrate(targetHashTime);
+        // Hashing is CPU bound; by default leave half the cores to everything else
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, hashQueueCapacity,
+                retryAfterSeconds, meterRegistry);
     }
 
+    // Only login and tokens without id/role claims reach this; API requests authenticate from the token
     @Bean
     public UserDetailsService userDetailsService(UserRepository repository) {
         return username -> repository.findByUsername(username)
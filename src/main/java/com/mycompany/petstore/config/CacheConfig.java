@@ -0,0 +1,48 @@
+package com.mycompany.petstore.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process read cache for detail lookups by id. The caching advice runs outside
+ * the transactional advice, so a hit never opens a transaction and evictions
+ * declared on service methods happen after their transaction commits. Evictions
+ * issued inside a transaction are deferred to commit by the transaction-aware proxy.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String MASCOTAS = "mascotas";
+    public static final String DUENIOS = "duenios";
+
+    @Value("${petstore.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${petstore.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        // Fixed names so the caches exist at startup and get bound to the meter registry
+        caffeine.setCacheNames(List.of(MASCOTAS, DUENIOS));
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.petstore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+public class JpaConfig {
+
+    // Second-level cache regions, referenced from the entities' @Cache annotations
+    public static final String MASCOTA_REGION = "petstore.mascota";
+    public static final String DUENIO_REGION = "petstore.duenio";
+    public static final String USER_REGION = "petstore.user";
+
+    @Value("${petstore.jdbc.batch-size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${petstore.jpa.second-level-cache.maximum-size:10000}")
+    private long secondLevelCacheSize;
+
+    @Value("${petstore.jpa.second-level-cache.expire-after-write:30m}")
+    private Duration secondLevelCacheTtl;
+
+    @Value("${petstore.jpa.statistics:true}")
+    private boolean statistics;
+
+    // Group INSERT/UPDATE statements into JDBC batches. Only effective for entities
+    // whose ids are not generated by IDENTITY columns (see Mascota and Duenio).
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, jdbcBatchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    // Second-level and query cache through JCache. Statistics feed the per-region
+    // hibernate.second.level.cache.* meters that actuator publishes.
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, statistics);
+        };
+    }
+
+    /**
+     * Bounded Caffeine regions for the cached entities and for query results.
+     * Caffeine's JCache defaults to store-by-value, which would serialize every
+     * entry on each access; Hibernate already stores disassembled state, so
+     * entries are kept by reference. The update-timestamps region keeps one entry
+     * per table and must never evict, so it is left unbounded.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // The provider hands out one manager per URI; a unique URI keeps application
+        // contexts in the same JVM (e.g. cached test contexts) from sharing regions
+        URI uri = URI.create("petstore-hibernate-" + System.identityHashCode(this));
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, getClass().getClassLoader());
+        for (String region : new String[]{MASCOTA_REGION, DUENIO_REGION, USER_REGION,
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME}) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, boundedRegion());
+            }
+        }
+        if (cacheManager.getCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME) == null) {
+            CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+            timestamps.setStoreByValue(false);
+            cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        }
+        return cacheManager;
+    }
+
+    private CaffeineConfiguration<Object, Object> boundedRegion() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(secondLevelCacheSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(secondLevelCacheTtl.toNanos()));
+        return configuration;
+    }
+}
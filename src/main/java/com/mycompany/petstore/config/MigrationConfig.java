@@ -0,0 +1,30 @@
+package com.mycompany.petstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The schema is owned by the Flyway migrations in {@code db/migration}, found
+ * through {@code spring.flyway.locations}: {@code db/migration/common} runs
+ * everywhere, and migrations with vendor-specific DDL exist once per database,
+ * under {@code db/migration/mysql} and {@code db/migration/h2}, with the same
+ * version numbers.
+ */
+@Configuration
+public class MigrationConfig {
+
+    // Databases created by Hibernate's auto-DDL before migrations existed have no
+    // history yet; V1 is exactly that schema, so they are baselined there and
+    // receive every later migration
+    @Value("${spring.flyway.baseline-on-migrate:true}")
+    private boolean baselineOnMigrate;
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion("1");
+    }
+}
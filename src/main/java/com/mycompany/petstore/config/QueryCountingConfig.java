@@ -0,0 +1,33 @@
+package com.mycompany.petstore.config;
+
+import com.mycompany.petstore.monitoring.QueryCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source the application uses, named {@code dataSource} whether it is
+ * the auto-configured pool or the replica or shard router in front of several, so
+ * that statements are counted once however the connection is routed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petstore.sql.instrument", matchIfMissing = true)
+public class QueryCountingConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
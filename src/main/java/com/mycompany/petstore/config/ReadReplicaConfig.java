@@ -0,0 +1,87 @@
+package com.mycompany.petstore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in
+ * {@code petstore.datasource.replica-urls}. They use the primary's credentials
+ * unless replica ones are given. Without replicas the auto-configured data source
+ * is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petstore.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    @Value("${petstore.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${petstore.datasource.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${petstore.datasource.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    // Reads by a user stay on the primary this long after they commit a write; 0 disables it
+    @Value("${petstore.datasource.read-your-writes:0s}")
+    private Duration readYourWritesWindow;
+
+    public ReadReplicaConfig(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                       DataSourceProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setReadOnly(true);
+            // Fail fast so an unreachable replica falls back to the primary quickly
+            replica.setConnectionTimeout(2_000);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, readYourWritesWindow);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${petstore.datasource.replica-check-ms:5000}")
+    public void checkReplicas() {
+        routingDataSource.getObject().checkReplicas();
+    }
+}
@@ -0,0 +1,147 @@
+package com.mycompany.petstore.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sends connections for read-only transactions to a replica, round robin, and
+ * everything else to the primary. Replicas that fail a health check or a connection
+ * attempt are skipped until a later check succeeds; with none left, reads go to the
+ * primary.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager asks for a connection before it marks the transaction
+ * read-only, and the proxy defers that until the first statement.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicReferenceArray<Boolean> healthy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    // Users who committed a write recently; their reads stay on the primary. Null when disabled.
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicReferenceArray<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, true);
+        }
+        this.recentWriters = readYourWritesWindow.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            recordWrite();
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = Math.floorMod(next.getAndIncrement(), replicas.size());
+            if (!healthy.get(index)) {
+                continue;
+            }
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException ex) {
+                markDown(index, ex);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    // Explicit credentials only exist for the primary; replicas use their pool's own
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Probes every replica and updates whether it receives reads.
+     */
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (connection.isValid(2)) {
+                    if (!healthy.getAndSet(i, true)) {
+                        log.info("Read replica {} is back", i);
+                    }
+                } else {
+                    markDown(i, null);
+                }
+            } catch (SQLException ex) {
+                markDown(i, ex);
+            }
+        }
+    }
+
+    // The primary is a bean of its own and is closed by the container
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    boolean isHealthy(int replica) {
+        return healthy.get(replica);
+    }
+
+    private boolean routesToReplica() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String user = currentUser();
+        return recentWriters == null || user == null || recentWriters.getIfPresent(user) == null;
+    }
+
+    // The window starts when the write commits, since replicas cannot have it before then
+    private void recordWrite() {
+        String user = currentUser();
+        if (recentWriters == null || user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    private void markDown(int replica, SQLException cause) {
+        if (healthy.getAndSet(replica, false)) {
+            log.warn("Read replica {} marked down; reads fall back to other replicas or the primary", replica, cause);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.petstore.config;
 
+import com.mycompany.petstore.security.ApiKeyAuthenticationFilter;
 import com.mycompany.petstore.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +21,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final ApiKeyAuthenticationFilter apiKeyAuthFilter;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -32,7 +34,9 @@ public class SecurityConfig {
                     "/swagger-ui/**",
                     "/swagger-ui.html",
                     "/actuator/health",
-                    "/api/auth/**"
+                    "/api/auth/register",
+                    "/api/auth/login",
+                    "/api/auth/refresh"
                 ).permitAll()
                 .anyRequest().authenticated()
             )
@@ -40,7 +44,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authenticationProvider(authenticationProvider)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(apiKeyAuthFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,189 @@
+package com.mycompany.petstore.config;
+
+import com.mycompany.petstore.shard.ShardMap;
+import com.mycompany.petstore.shard.ShardRebalancer;
+import com.mycompany.petstore.shard.ShardRouter;
+import com.mycompany.petstore.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owner-keyed sharding, enabled by listing the JDBC URLs of the extra shards in
+ * {@code petstore.sharding.urls}. The auto-configured data source is shard 0, the
+ * landing shard, which also keeps the tables that are not sharded. Without extra
+ * shards a single-shard {@link ShardRouter} runs every query inline.
+ * Cannot be combined with read replicas: both replace the primary data source, so
+ * startup fails when {@code petstore.datasource.replica-urls} is set as well.
+ */
+@Configuration
+public class ShardingConfig {
+
+    private final ObjectProvider<ShardRebalancer> rebalancer;
+
+    @Value("${petstore.sharding.urls:}")
+    private List<String> shardUrls;
+
+    @Value("${petstore.sharding.username:${spring.datasource.username:}}")
+    private String shardUsername;
+
+    @Value("${petstore.sharding.password:${spring.datasource.password:}}")
+    private String shardPassword;
+
+    @Value("${petstore.sharding.virtual-nodes:64}")
+    private int virtualNodes;
+
+    @Value("${petstore.sharding.scatter-threads:0}")
+    private int scatterThreads;
+
+    // Must exceed the ring refresh interval plus the longest write transaction
+    @Value("${petstore.sharding.freeze-grace:10s}")
+    private Duration freezeGrace;
+
+    @Value("${petstore.sharding.move-batch-size:500}")
+    private int moveBatchSize;
+
+    @Value("${petstore.sharding.id-band-bits:40}")
+    private int idBandBits;
+
+    @Value("${petstore.sharding.settle:true}")
+    private boolean settle;
+
+    public ShardingConfig(ObjectProvider<ShardRebalancer> rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("'${petstore.sharding.urls:}'.isEmpty()")
+    public ShardRouter singleShardRouter() {
+        return ShardRouter.single();
+    }
+
+    // Runs before any bean is created
+    @Bean
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    public static BeanFactoryPostProcessor shardingWithoutReplicasCheck(Environment environment) {
+        return beanFactory -> {
+            if (StringUtils.hasText(environment.getProperty("petstore.datasource.replica-urls"))) {
+                throw new IllegalStateException(
+                        "petstore.sharding.urls and petstore.datasource.replica-urls cannot both be set");
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        HikariDataSource landing = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        landing.setPoolName("shard-0");
+        shards.add(landing);
+        for (String url : shardUrls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(shardUsername);
+            shard.setPassword(shardPassword);
+            if (properties.getDriverClassName() != null) {
+                shard.setDriverClassName(properties.getDriverClassName());
+            }
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // Flyway only sees the primary data source, which is the landing shard; the
+    // other shards get the same migrations right after it
+    @Bean
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            flyway.migrate();
+            List<DataSource> shards = shardRoutingDataSource.getShards();
+            for (int shard = 1; shard < shards.size(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(shard))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    // Reading the ring needs the migrated landing shard
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    @DependsOnDatabaseInitialization
+    public ShardRouter shardRouter(ShardRoutingDataSource shardRoutingDataSource) {
+        List<DataSource> shards = shardRoutingDataSource.getShards();
+        ShardMap map = ShardRebalancer.loadMap(shards.get(ShardRouter.LANDING_SHARD), shards.size(), virtualNodes);
+        return new ShardRouter(map, shards.size(), scatterThreads > 0 ? scatterThreads : 2 * shards.size());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    public ShardRebalancer shardRebalancer(ShardRouter shardRouter, ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardRebalancer(shardRouter, shardRoutingDataSource.getShards(), virtualNodes,
+                freezeGrace, moveBatchSize);
+    }
+
+    // Left out with replicas so that the check above, not a bean override, reports the conflict
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    @ConditionalOnExpression("'${petstore.datasource.replica-urls:}'.isEmpty()")
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Cached query results are keyed by SQL and parameters, not by shard, so one
+    // shard's answer would be served for another's. Entities are still cached by id.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(name = "petstore.sharding.urls")
+    public HibernatePropertiesCustomizer shardedQueryCacheCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reserveIdBands() {
+        rebalancer.ifAvailable(r -> r.reserveIdBands(idBandBits));
+    }
+
+    @Scheduled(fixedDelayString = "${petstore.sharding.ring-refresh-ms:5000}")
+    public void refreshRing() {
+        rebalancer.ifAvailable(ShardRebalancer::refresh);
+    }
+
+    @Scheduled(fixedDelayString = "${petstore.sharding.settle-ms:60000}")
+    public void settleNewOwners() {
+        if (settle) {
+            rebalancer.ifAvailable(ShardRebalancer::settle);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mycompany.petstore.controller;
+
+import com.mycompany.petstore.dto.ApiKeyDTO;
+import com.mycompany.petstore.dto.ApiKeyRequest;
+import com.mycompany.petstore.service.ApiKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/api-keys")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+@Tag(name = "API keys", description = "Keys for machine-to-machine clients, sent in the X-API-Key header")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+
+    @GetMapping
+    @Operation(summary = "List API keys, without the keys themselves")
+    public ResponseEntity<List<ApiKeyDTO>> getApiKeys() {
+        return ResponseEntity.ok(apiKeyService.findAll());
+    }
+
+    @PostMapping
+    @Operation(summary = "Create an API key; the key is only shown in this response")
+    public ResponseEntity<ApiKeyDTO> createApiKey(@Valid @RequestBody ApiKeyRequest request) {
+        return new ResponseEntity<>(apiKeyService.create(request), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Revoke an API key")
+    public void revokeApiKey(@PathVariable Long id) {
+        apiKeyService.revoke(id);
+    }
+}
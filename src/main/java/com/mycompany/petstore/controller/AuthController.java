@@ -2,18 +2,25 @@ package com.mycompany.petstore.controller;
 
 import com.mycompany.petstore.dto.AuthRequest;
 import com.mycompany.petstore.dto.AuthResponse;
+import com.mycompany.petstore.dto.RefreshRequest;
 import com.mycompany.petstore.dto.RegisterRequest;
+import com.mycompany.petstore.dto.RevokeRequest;
+import com.mycompany.petstore.security.LoginRateLimiter;
 import com.mycompany.petstore.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,16 +30,22 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user")
     @ApiResponse(responseCode = "200", description = "User registered successfully",
             content = @Content(mediaType = "application/json", 
             schema = @Schema(implementation = AuthResponse.class)))
+    @ApiResponse(responseCode = "429", description = "Too many attempts from this client")
     public ResponseEntity<AuthResponse> register(
-            @Valid @RequestBody RegisterRequest request
+            @Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest
     ) {
+        loginRateLimiter.acquire(httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.register(request));
     }
 
@@ -41,9 +54,54 @@ public class AuthController {
     @ApiResponse(responseCode = "200", description = "User authenticated successfully",
             content = @Content(mediaType = "application/json", 
             schema = @Schema(implementation = AuthResponse.class)))
+    @ApiResponse(responseCode = "429", description = "Too many attempts for this user or client")
     public ResponseEntity<AuthResponse> login(
-            @Valid @RequestBody AuthRequest request
+            @Valid @RequestBody AuthRequest request,
+            HttpServletRequest httpRequest
     ) {
+        // Before authenticate() so rejected attempts never reach BCrypt
+        loginRateLimiter.acquireLogin(request.getUsername(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.authenticate(request));
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token")
+    @ApiResponse(responseCode = "200", description = "Tokens refreshed successfully",
+            content = @Content(mediaType = "application/json", 
+            schema = @Schema(implementation = AuthResponse.class)))
+    @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired or already used")
+    public ResponseEntity<AuthResponse> refresh(
+            @Valid @RequestBody RefreshRequest request
+    ) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the current access token and, optionally, its refresh token")
+    @ApiResponse(responseCode = "204", description = "Tokens revoked")
+    @ApiResponse(responseCode = "400", description = "The request was not authenticated with a bearer token")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshRequest request
+    ) {
+        // Callers authenticated otherwise, e.g. with an API key, have no token to revoke
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new IllegalArgumentException("El logout requiere un token Bearer en Authorization");
+        }
+        authService.logout(authorization.substring(BEARER_PREFIX.length()),
+                request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/revoke")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Revoke another user's access token")
+    @ApiResponse(responseCode = "204", description = "Token revoked")
+    @ApiResponse(responseCode = "403", description = "Caller is not an administrator")
+    public ResponseEntity<Void> revoke(
+            @Valid @RequestBody RevokeRequest request
+    ) {
+        authService.revoke(request.getToken());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,28 @@
+package com.mycompany.petstore.controller;
+
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Suggestion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+public class AutocompleteController {
+
+    private final NameAutocompleteIndex nameIndex;
+
+    // Pet and owner names with a word starting with q, served from memory
+    @GetMapping
+    public ResponseEntity<List<Suggestion>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(nameIndex.suggest(q, limit));
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.petstore.controller;
 
+import com.mycompany.petstore.dto.CursorPage;
 import com.mycompany.petstore.model.Duenio;
 import com.mycompany.petstore.service.DuenioService;
 import jakarta.validation.Valid;
@@ -18,6 +19,14 @@ public class DuenioController {
     private final DuenioService duenioService;
 
     @GetMapping
+    public ResponseEntity<CursorPage<Duenio>> getDuenios(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(duenioService.findPage(cursor, limit));
+    }
+
+    // Full, unpaged listing; clients must opt in explicitly with ?unpaged=true
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<Duenio>> getAllDuenios() {
         return ResponseEntity.ok(duenioService.findAll());
     }
@@ -27,6 +36,12 @@ public class DuenioController {
         return ResponseEntity.ok(duenioService.findById(id));
     }
 
+    // Caller-ID lookup for the front desk; any phone formatting is accepted
+    @GetMapping("/by-celular/{phone}")
+    public ResponseEntity<Duenio> getDuenioByCelular(@PathVariable String phone) {
+        return ResponseEntity.ok(duenioService.findByCelular(phone));
+    }
+
     @PostMapping
     public ResponseEntity<Duenio> createDuenio(@Valid @RequestBody Duenio duenio) {
         return new ResponseEntity<>(duenioService.save(duenio), HttpStatus.CREATED);
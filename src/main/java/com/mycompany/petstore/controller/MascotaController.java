@@ -1,14 +1,27 @@
 package com.mycompany.petstore.controller;
 
+import com.mycompany.petstore.dto.BatchItemResult;
+import com.mycompany.petstore.dto.CursorPage;
 import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.dto.VersionedMascota;
+import com.mycompany.petstore.service.MascotaBatchService;
+import com.mycompany.petstore.service.MascotaExportService;
+import com.mycompany.petstore.service.MascotaExportService.ExportFormat;
 import com.mycompany.petstore.service.MascotaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/mascotas")
@@ -16,15 +29,81 @@ import java.util.List;
 public class MascotaController {
 
     private final MascotaService mascotaService;
+    private final MascotaExportService mascotaExportService;
+    private final MascotaBatchService mascotaBatchService;
+
+    // Read endpoints accept ?fields=id,nombre,raza to return (and select) only those columns
 
     @GetMapping
-    public ResponseEntity<List<MascotaDTO>> getAllMascotas() {
+    public ResponseEntity<CursorPage<?>> getMascotas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(mascotaService.findPage(cursor, limit, MascotaField.parse(fields)));
+        }
+        return ResponseEntity.ok(mascotaService.findPage(cursor, limit));
+    }
+
+    // Full, unpaged listing; clients must opt in explicitly with ?unpaged=true
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<List<?>> getAllMascotas(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(mascotaService.findAll(MascotaField.parse(fields)));
+        }
         return ResponseEntity.ok(mascotaService.findAll());
     }
 
+    // Combinable equality filters (raza, color, alergico, atencionEspecial) with keyset paging
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<?>> searchMascotas(
+            @ModelAttribute MascotaSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(mascotaService.search(
+                    criteria, cursor, limit, includeTotal, MascotaField.parse(fields)));
+        }
+        return ResponseEntity.ok(mascotaService.search(criteria, cursor, limit, includeTotal));
+    }
+
+    // Free-text search over the notes (e.g. ?q=muerde otitis), best matches first
+    @GetMapping("/observaciones")
+    public ResponseEntity<List<MascotaDTO>> searchObservaciones(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(mascotaService.searchObservaciones(q, limit));
+    }
+
+    // Streams every pet with its owner as NDJSON (default) or CSV in constant memory
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMascotas(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> mascotaExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"mascotas." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Strong ETag from the row versions; a matching If-None-Match gets a 304 after
+    // the version lookup alone, without loading or serializing the pet
     @GetMapping("/{id}")
-    public ResponseEntity<MascotaDTO> getMascotaById(@PathVariable Long id) {
-        return ResponseEntity.ok(mascotaService.findById(id));
+    public ResponseEntity<?> getMascotaById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        Set<MascotaField> selected = fields != null ? MascotaField.parse(fields) : null;
+        String etag = mascotaService.findVersion(id).toEtag(selected);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Object body = selected != null ? mascotaService.findById(id, selected) : mascotaService.findById(id);
+        return ResponseEntity.ok().eTag(etag).body(body);
     }
 
     @PostMapping
@@ -32,16 +111,27 @@ public class MascotaController {
         return new ResponseEntity<>(mascotaService.save(mascotaDTO), HttpStatus.CREATED);
     }
 
+    // Creates many pets in one call; the response holds one result per item, in order
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createMascotas(@RequestBody List<MascotaDTO> mascotas) {
+        return ResponseEntity.ok(mascotaBatchService.saveAll(mascotas));
+    }
+
+    // If-Match makes the write conditional on the ETag the client last saw (412 otherwise)
     @PutMapping("/{id}")
     public ResponseEntity<MascotaDTO> updateMascota(
             @PathVariable Long id,
-            @Valid @RequestBody MascotaDTO mascotaDTO) {
-        return ResponseEntity.ok(mascotaService.update(id, mascotaDTO));
+            @Valid @RequestBody MascotaDTO mascotaDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionedMascota updated = mascotaService.update(id, mascotaDTO, ifMatch);
+        return ResponseEntity.ok().eTag(updated.version().toEtag()).body(updated.mascota());
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteMascota(@PathVariable Long id) {
-        mascotaService.delete(id);
+    public void deleteMascota(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        mascotaService.delete(id, ifMatch);
     }
 }
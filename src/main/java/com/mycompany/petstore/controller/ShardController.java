@@ -0,0 +1,50 @@
+package com.mycompany.petstore.controller;
+
+import com.mycompany.petstore.shard.ShardMap;
+import com.mycompany.petstore.shard.ShardRebalancer;
+import com.mycompany.petstore.shard.ShardRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/shards")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+@ConditionalOnProperty(name = "petstore.sharding.urls")
+@Tag(name = "Shards", description = "Owner-keyed shard ring and online rebalancing")
+public class ShardController {
+
+    private final ShardRouter shardRouter;
+    private final ShardRebalancer shardRebalancer;
+
+    @GetMapping
+    @Operation(summary = "Number of ring segments served by each shard")
+    public ResponseEntity<Map<Integer, Integer>> getSegmentsPerShard() {
+        ShardMap map = shardRouter.map();
+        Map<Integer, Integer> segments = new TreeMap<>();
+        for (int segment = 0; segment < map.segmentCount(); segment++) {
+            segments.merge(map.shardOf(segment), 1, Integer::sum);
+        }
+        return ResponseEntity.ok(segments);
+    }
+
+    @PostMapping("/{shard}")
+    @Operation(summary = "Bring a configured shard into the ring, moving its segments to it")
+    public ResponseEntity<Map<String, Integer>> addShard(@PathVariable int shard) {
+        return ResponseEntity.ok(Map.of("moved", shardRebalancer.addShard(shard)));
+    }
+
+    @PostMapping("/segments/{segment}")
+    @Operation(summary = "Move the owners of one ring segment to another shard")
+    public ResponseEntity<Map<String, Integer>> moveSegment(@PathVariable int segment, @RequestParam int target) {
+        return ResponseEntity.ok(Map.of("moved", shardRebalancer.moveSegment(segment, target)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.petstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mycompany.petstore.model.ApiKey;
+import com.mycompany.petstore.model.ApiKeyScope;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiKeyDTO {
+    private Long id;
+    private String name;
+    private String prefix;
+    private Set<ApiKeyScope> scopes;
+    private int quotaPerMinute;
+    private Instant createdAt;
+    private boolean revoked;
+
+    // The full key, only returned once when it is created
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String key;
+
+    public static ApiKeyDTO from(ApiKey apiKey) {
+        return ApiKeyDTO.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .prefix(apiKey.getPrefix())
+                .scopes(apiKey.getScopes())
+                .quotaPerMinute(apiKey.getQuotaPerMinute())
+                .createdAt(apiKey.getCreatedAt())
+                .revoked(apiKey.isRevoked())
+                .build();
+    }
+}
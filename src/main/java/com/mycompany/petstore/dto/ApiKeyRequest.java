@@ -0,0 +1,30 @@
+package com.mycompany.petstore.dto;
+
+import com.mycompany.petstore.model.ApiKeyScope;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiKeyRequest {
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 100)
+    private String name;
+
+    @NotEmpty(message = "At least one scope is required")
+    private Set<ApiKeyScope> scopes;
+
+    @Min(value = 1, message = "Quota must be at least 1 request per minute")
+    private int quotaPerMinute;
+}
@@ -14,6 +14,9 @@ public class AuthResponse {
     @JsonProperty("access_token")
     private String accessToken;
     
+    @JsonProperty("refresh_token")
+    private String refreshToken;
+    
     @JsonProperty("token_type")
     private String tokenType = "Bearer";
     
@@ -0,0 +1,58 @@
+package com.mycompany.petstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to clients
+ * and is {@code null} once the last page has been served.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Only computed when the client asks for it, since it costs a COUNT query
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only
+     * signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idExtractor) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, false, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        Long lastId = idExtractor.apply(items.get(limit - 1));
+        return new CursorPage<>(items, encodeCursor(lastId), true, null);
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.mycompany.petstore.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,12 +12,38 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class MascotaDTO {
     private Long id;
+
+    @NotBlank(message = "nombre es obligatorio")
+    @Size(max = 255, message = "nombre admite hasta 255 caracteres")
     private String nombre;
+
+    // Same lengths as the indexed columns in Mascota
+    @NotBlank(message = "raza es obligatoria")
+    @Size(max = 100, message = "raza admite hasta 100 caracteres")
     private String raza;
+
+    @NotBlank(message = "color es obligatorio")
+    @Size(max = 100, message = "color admite hasta 100 caracteres")
     private String color;
+
+    @NotBlank(message = "alergico es obligatorio")
+    @Size(max = 10, message = "alergico admite hasta 10 caracteres")
     private String alergico;
+
+    @Size(max = 10, message = "atencionEspecial admite hasta 10 caracteres")
     private String atencionEspecial;
+
+    // A MySQL TEXT column holds 65,535 bytes, up to four per character
+    @Size(max = 16_383, message = "observaciones admite hasta 16383 caracteres")
     private String observaciones;
+
+    @NotBlank(message = "nombreDuenio es obligatorio")
+    @Size(max = 255, message = "nombreDuenio admite hasta 255 caracteres")
     private String nombreDuenio;
+
+    // Stored without anything but its digits (see DuenioService.normalizeCelular)
+    @NotBlank(message = "celularDuenio es obligatorio")
+    @Size(max = 255, message = "celularDuenio admite hasta 255 caracteres")
+    @Pattern(regexp = ".*[0-9].*", message = "celularDuenio debe contener al menos un dígito")
     private String celularDuenio;
 }
@@ -0,0 +1,68 @@
+package com.mycompany.petstore.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of {@link MascotaDTO} that clients can select with {@code ?fields=}.
+ * Each one maps to a single column, so unrequested fields are left out of the
+ * SQL projection, and the owner join is skipped when no owner field is asked for.
+ */
+public enum MascotaField {
+    ID("id", "id", false),
+    NOMBRE("nombre", "nombre", false),
+    RAZA("raza", "raza", false),
+    COLOR("color", "color", false),
+    ALERGICO("alergico", "alergico", false),
+    ATENCION_ESPECIAL("atencionEspecial", "atencionEspecial", false),
+    OBSERVACIONES("observaciones", "observaciones", false),
+    NOMBRE_DUENIO("nombreDuenio", "nombre", true),
+    CELULAR_DUENIO("celularDuenio", "celular", true);
+
+    private final String jsonName;
+    private final String attribute;
+    private final boolean duenio;
+
+    MascotaField(String jsonName, String attribute, boolean duenio) {
+        this.jsonName = jsonName;
+        this.attribute = attribute;
+        this.duenio = duenio;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isDuenio() {
+        return duenio;
+    }
+
+    /**
+     * Parses a comma-separated list such as {@code "id,nombre,raza"}. The id is
+     * always included because keyset cursors are built from it.
+     */
+    public static Set<MascotaField> parse(String fields) {
+        Set<MascotaField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromJsonName(trimmed));
+        }
+        return selected;
+    }
+
+    private static MascotaField fromJsonName(String name) {
+        for (MascotaField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo desconocido: " + name);
+    }
+}
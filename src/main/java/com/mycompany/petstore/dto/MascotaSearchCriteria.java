@@ -0,0 +1,18 @@
+package com.mycompany.petstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Equality filters for GET /api/mascotas/search. Blank or missing values are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MascotaSearchCriteria {
+    private String raza;
+    private String color;
+    private String alergico;
+    private String atencionEspecial;
+}
@@ -0,0 +1,43 @@
+package com.mycompany.petstore.dto;
+
+import java.util.Set;
+
+/**
+ * Versions a pet's representation depends on: the pet row and its owner row.
+ * Read with a primary-key lookup, it is enough to answer conditional requests
+ * without loading or serializing the pet.
+ */
+public record MascotaVersion(Long id, Long version, Long duenioVersion) {
+
+    // Strong entity tag for the full MascotaDTO representation
+    public String toEtag() {
+        return "\"" + id + "-" + version + "-" + duenioVersion + "\"";
+    }
+
+    // Sparse representations (?fields=) are different bodies, so they get their own tags
+    public String toEtag(Set<MascotaField> fields) {
+        if (fields == null) {
+            return toEtag();
+        }
+        int mask = 0;
+        for (MascotaField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return "\"" + id + "-" + version + "-" + duenioVersion + "-" + Integer.toHexString(mask) + "\"";
+    }
+
+    /**
+     * Evaluates an If-Match header using strong comparison: {@code *} or any listed
+     * tag equal to the current full-representation tag. Weak tags never match.
+     */
+    public boolean matches(String ifMatch) {
+        String current = toEtag();
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
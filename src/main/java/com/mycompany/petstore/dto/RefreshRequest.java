@@ -0,0 +1,19 @@
+package com.mycompany.petstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+
+    @JsonProperty("refresh_token")
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -0,0 +1,17 @@
+package com.mycompany.petstore.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokeRequest {
+
+    @NotBlank(message = "Token is required")
+    private String token;
+}
@@ -0,0 +1,8 @@
+package com.mycompany.petstore.dto;
+
+/**
+ * A pet as written by an update, with the versions its row and its owner's row got
+ * when the update flushed, so the response's ETag needs no second read.
+ */
+public record VersionedMascota(MascotaDTO mascota, MascotaVersion version) {
+}
@@ -0,0 +1,10 @@
+package com.mycompany.petstore.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
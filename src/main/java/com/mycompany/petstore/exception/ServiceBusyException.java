@@ -0,0 +1,20 @@
+package com.mycompany.petstore.exception;
+
+/**
+ * The server is shedding load; clients should retry after {@code retryAfterSeconds}.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
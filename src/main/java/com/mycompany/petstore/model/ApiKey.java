@@ -0,0 +1,72 @@
+package com.mycompany.petstore.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A key for machine-to-machine clients. Only the SHA-256 of the key is stored; the
+ * prefix is kept in clear so administrators can tell keys apart.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "api_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_api_keys_hash", columnNames = "key_hash"))
+public class ApiKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "key_hash", nullable = false, length = 32, columnDefinition = "BINARY(32)")
+    private byte[] keyHash;
+
+    @Column(nullable = false, length = 12)
+    private String prefix;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Convert(converter = ScopesConverter.class)
+    @Column(nullable = false, length = 50)
+    private Set<ApiKeyScope> scopes;
+
+    @Column(name = "quota_per_minute", nullable = false)
+    private int quotaPerMinute;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    // Stored as a comma separated list, e.g. "READ,WRITE"
+    @Converter
+    public static class ScopesConverter implements AttributeConverter<Set<ApiKeyScope>, String> {
+
+        @Override
+        public String convertToDatabaseColumn(Set<ApiKeyScope> scopes) {
+            return scopes.stream().map(Enum::name).sorted().collect(Collectors.joining(","));
+        }
+
+        @Override
+        public Set<ApiKeyScope> convertToEntityAttribute(String value) {
+            Set<ApiKeyScope> scopes = EnumSet.noneOf(ApiKeyScope.class);
+            if (value != null && !value.isBlank()) {
+                Arrays.stream(value.split(",")).map(ApiKeyScope::valueOf).forEach(scopes::add);
+            }
+            return scopes;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mycompany.petstore.model;
+
+public enum ApiKeyScope {
+    // GET and HEAD requests
+    READ,
+    // Every other method
+    WRITE
+}
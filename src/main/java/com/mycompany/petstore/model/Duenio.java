@@ -1,20 +1,35 @@
 package com.mycompany.petstore.model;
 
+import com.mycompany.petstore.config.JpaConfig;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
-@Table(name = "duenios")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JpaConfig.DUENIO_REGION)
+@Table(name = "duenios", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_duenios_celular", columnNames = "celular")
+})
 public class Duenio {
     
+    // Pooled sequence so owners created alongside pets batch as well
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "duenios_seq")
+    @SequenceGenerator(name = "duenios_seq", sequenceName = "duenios_seq", allocationSize = 50)
     private Long id;
     
+    // Optimistic locking; pets' ETags include it since they embed owner fields
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(nullable = false)
     private String nombre;
     
+    // Stored normalised; one owner per phone number
     @Column(name = "celular", nullable = false)
     private String celular;
     
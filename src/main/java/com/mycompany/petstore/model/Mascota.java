@@ -1,37 +1,67 @@
 package com.mycompany.petstore.model;
 
+import com.mycompany.petstore.config.JpaConfig;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
-@Table(name = "mascotas")
+// Read-mostly and updated through the API: READ_WRITE keeps the cache consistent under concurrent updates
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JpaConfig.MASCOTA_REGION)
+// Search indexes: a symmetric chain cover of the 15 combinations of equality filters on
+// raza (r), color (c), alergico (a) and atencion_especial (e). Every combination is a
+// prefix of one index: {r, rc, rca, rcae}, {e, er, erc}, {c, ca, cae}, {ce}, {a, ar, are}, {ae}.
+// InnoDB appends the primary key, so the keyset predicate on num_cliente stays in-index.
+@Table(name = "mascotas", indexes = {
+        @Index(name = "idx_mascotas_raza_color_alergico_atencion", columnList = "raza, color, alergico, atencion_especial"),
+        @Index(name = "idx_mascotas_atencion_raza_color", columnList = "atencion_especial, raza, color"),
+        @Index(name = "idx_mascotas_color_alergico_atencion", columnList = "color, alergico, atencion_especial"),
+        @Index(name = "idx_mascotas_color_atencion", columnList = "color, atencion_especial"),
+        @Index(name = "idx_mascotas_alergico_raza_atencion", columnList = "alergico, raza, atencion_especial"),
+        @Index(name = "idx_mascotas_alergico_atencion", columnList = "alergico, atencion_especial"),
+        // Pets of an owner; the schema itself comes from db/migration
+        @Index(name = "idx_mascotas_duenio_id", columnList = "duenio_id")
+})
 public class Mascota {
     
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can
+    // hand out ids in memory and batch the INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mascotas_seq")
+    @SequenceGenerator(name = "mascotas_seq", sequenceName = "mascotas_seq", allocationSize = 50)
     @Column(name = "num_cliente")
     private Long id;
     
+    // Optimistic locking; also the basis of the pet's ETag
+    @Version
     @Column(nullable = false)
-    private String nombre;
+    private Long version;
     
     @Column(nullable = false)
+    private String nombre;
+    
+    // Column lengths keep the composite search indexes under InnoDB's 3072-byte key limit
+    @Column(nullable = false, length = 100)
     private String raza;
     
-    @Column(nullable = false)
+    @Column(nullable = false, length = 100)
     private String color;
     
-    @Column(nullable = false)
+    @Column(nullable = false, length = 10)
     private String alergico;
     
-    @Column(name = "atencion_especial")
+    @Column(name = "atencion_especial", length = 10)
     private String atencionEspecial;
     
     @Column(columnDefinition = "TEXT")
     private String observaciones;
     
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Owners are shared between pets (matched by celular), so removing a pet must
+    // not cascade to its owner; MascotaService deletes orphaned owners itself
+    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JoinColumn(name = "duenio_id", referencedColumnName = "id")
     private Duenio duenio;
     
@@ -1,10 +1,13 @@
 package com.mycompany.petstore.model;
 
+import com.mycompany.petstore.config.JpaConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +20,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Loaded on login and for tokens without role claims; READ_WRITE so password and role changes are never served stale
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JpaConfig.USER_REGION)
 @Table(name = "users")
 public class User implements UserDetails {
 
@@ -0,0 +1,145 @@
+package com.mycompany.petstore.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Records every statement executed through its connections into the
+ * {@link QueryStats} of the calling thread. Connections taken while nothing is being
+ * measured are handed out unwrapped, so background jobs pay nothing.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection wrap(Connection connection) {
+        if (QueryStats.current() == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (STATEMENT_FACTORIES.contains(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return statement(method.getReturnType(), (Statement) result, sql);
+            }
+            return result;
+        });
+    }
+
+    private static Statement statement(Class<?> type, Statement statement, String preparedSql) {
+        Class<? extends Statement> api = type == CallableStatement.class ? CallableStatement.class
+                : type == PreparedStatement.class ? PreparedStatement.class : Statement.class;
+        return proxy(api, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s : "batch";
+                long start = System.nanoTime();
+                Object result;
+                try {
+                    result = invoke(statement, method, args);
+                } finally {
+                    record(sql, System.nanoTime() - start);
+                }
+                return counted(result);
+            }
+            if (name.equals("getResultSet") || name.equals("getGeneratedKeys")) {
+                return counted(invoke(statement, method, args));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    // Result sets count the rows read; update counts are added directly
+    private static Object counted(Object result) {
+        QueryStats stats = QueryStats.current();
+        if (stats == null) {
+            return result;
+        }
+        if (result instanceof ResultSet resultSet) {
+            return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+                Object value = invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(value)) {
+                    stats.recordRows(1);
+                }
+                return value;
+            });
+        }
+        if (result instanceof Integer count && count > 0) {
+            stats.recordRows(count);
+        } else if (result instanceof Long count && count > 0) {
+            stats.recordRows(count);
+        } else if (result instanceof int[] counts) {
+            for (int count : counts) {
+                stats.recordRows(Math.max(count, 0));
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                stats.recordRows(Math.max(count, 0));
+            }
+        }
+        return result;
+    }
+
+    private static void record(String sql, long elapsedNanos) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql, elapsedNanos);
+        }
+    }
+
+    private static <T> T proxy(Class<T> api, Object target, InvocationHandler handler) {
+        return api.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{api},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Counting " + target;
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mycompany.petstore.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Measures the SQL each request runs, security filters included, and publishes it per
+ * controller method as {@code petstore.sql.statements}, {@code petstore.sql.rows} and
+ * {@code petstore.sql.time}. Statements repeated within one request are logged as a
+ * likely N+1. Optionally reports the statement count in {@value #HEADER}, set when
+ * the response starts, so statements run while streaming the body are not included.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean header;
+    private final int repeatedThreshold;
+
+    public QueryCountingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${petstore.sql.query-count-header:false}") boolean header,
+            @Value("${petstore.sql.repeated-threshold:10}") int repeatedThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.header = header;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        HttpServletResponse target = header ? new CountHeaderResponse(response, stats) : response;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            QueryStats.stop();
+            if (header && !response.isCommitted()) {
+                response.setHeader(HEADER, Long.toString(stats.statements()));
+            }
+            if (stats.statements() > 0) {
+                publish(handlerName(request), stats);
+            }
+        }
+    }
+
+    private void publish(String handler, QueryStats stats) {
+        DistributionSummary.builder("petstore.sql.statements")
+                .tag("handler", handler)
+                .description("SQL statements per request")
+                .register(meterRegistry)
+                .record(stats.statements());
+        DistributionSummary.builder("petstore.sql.rows")
+                .tag("handler", handler)
+                .description("Rows read or written per request")
+                .register(meterRegistry)
+                .record(stats.rows());
+        Timer.builder("petstore.sql.time")
+                .tag("handler", handler)
+                .description("Time spent executing SQL per request")
+                .register(meterRegistry)
+                .record(stats.time());
+
+        Map<String, Long> repeated = stats.repeated(repeatedThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("petstore.sql.repeated", "handler", handler).increment();
+            repeated.forEach((sql, count) ->
+                    log.warn("{} ran the same statement {} times, likely an N+1: {}", handler, count, sql));
+        }
+    }
+
+    // Set by the dispatcher once a handler is chosen; absent for requests no controller served
+    private static String handlerName(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "none";
+    }
+
+    private static final class CountHeaderResponse extends HttpServletResponseWrapper {
+        private final QueryStats stats;
+
+        CountHeaderResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        private void setCount() {
+            if (!isCommitted()) {
+                setHeader(HEADER, Long.toString(stats.statements()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCount();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCount();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCount();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setCount();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setCount();
+            super.sendError(sc);
+        }
+    }
+}
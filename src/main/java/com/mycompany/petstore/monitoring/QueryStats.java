@@ -0,0 +1,127 @@
+package com.mycompany.petstore.monitoring;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL statements, rows and database time recorded by {@link QueryCountingDataSource}
+ * for one unit of work, usually an HTTP request. Bound to the current thread; tasks
+ * that query on its behalf from other threads are wrapped with {@link #propagate}.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final Map<String, LongAdder> executions = new ConcurrentHashMap<>();
+
+    /** Stats for the current thread, or null when nothing is being measured. */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /** Starts measuring on the current thread, replacing any stats already bound. */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /** Runs {@code body} and returns what it executed, restoring the caller's stats afterwards. */
+    public static QueryStats capture(Runnable body) {
+        QueryStats outer = CURRENT.get();
+        QueryStats stats = start();
+        try {
+            body.run();
+            return stats;
+        } finally {
+            if (outer != null) {
+                outer.add(stats);
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /** Makes {@code task} record into the caller's stats on whichever thread runs it. */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            QueryStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    void recordStatement(String sql, long elapsedNanos) {
+        statements.increment();
+        nanos.add(elapsedNanos);
+        executions.computeIfAbsent(sql, key -> new LongAdder()).increment();
+    }
+
+    void recordRows(long count) {
+        rows.add(count);
+    }
+
+    private void add(QueryStats other) {
+        statements.add(other.statements());
+        rows.add(other.rows());
+        nanos.add(other.nanos.sum());
+        other.executions.forEach((sql, count) ->
+                executions.computeIfAbsent(sql, key -> new LongAdder()).add(count.sum()));
+    }
+
+    public long statements() {
+        return statements.sum();
+    }
+
+    // Rows read through result sets plus rows reported by updates
+    public long rows() {
+        return rows.sum();
+    }
+
+    public Duration time() {
+        return Duration.ofNanos(nanos.sum());
+    }
+
+    /**
+     * Statements run at least {@code threshold} times, with their counts: the usual
+     * sign of an N+1, one query per row of an earlier result.
+     */
+    public Map<String, Long> repeated(int threshold) {
+        Map<String, Long> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count.sum() >= threshold) {
+                repeated.put(sql, count.sum());
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public String toString() {
+        return statements() + " statements, " + rows() + " rows, " + time().toMillis() + " ms";
+    }
+}
@@ -0,0 +1,13 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.model.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+
+    Optional<ApiKey> findByKeyHashAndRevokedFalse(byte[] keyHash);
+}
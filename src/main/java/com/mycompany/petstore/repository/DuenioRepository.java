@@ -1,10 +1,42 @@
 package com.mycompany.petstore.repository;
 
 import com.mycompany.petstore.model.Duenio;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface DuenioRepository extends JpaRepository<Duenio, Long> {
-    // Custom query methods can be added here if needed
+
+    // Keyset page ordered by primary key; see MascotaRepository#findPageDTO
+    List<Duenio> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Both lookups expect an already normalised celular (see DuenioService#normalizeCelular)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<Duenio> findByCelular(String celular);
+
+    List<Duenio> findByCelularIn(Collection<String> celulares);
+
+    // Uncached probe, safe to send to every shard
+    boolean existsByCelular(String celular);
+
+    // Cursor over every owner; see MascotaRepository#streamAllDTO
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Duenio d ORDER BY d.id")
+    Stream<Duenio> streamAll();
 }
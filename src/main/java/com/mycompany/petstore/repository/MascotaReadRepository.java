@@ -0,0 +1,112 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-only pet listings in plain JDBC, for the list, search and export endpoints.
+ * Rows go straight from the result set into {@link MascotaDTO}: no entities, no
+ * persistence context and none of Hibernate's per-row processing. Statements run on
+ * the connection of the surrounding transaction, so shard routing and query counting
+ * apply as usual. Anything that is written back goes through {@link MascotaRepository}.
+ */
+@Repository
+public class MascotaReadRepository {
+
+    private static final String SELECT =
+            "SELECT m.num_cliente, m.nombre, m.raza, m.color, m.alergico, m.atencion_especial, " +
+            "m.observaciones, d.nombre, d.celular " +
+            "FROM mascotas m LEFT JOIN duenios d ON d.id = m.duenio_id ";
+
+    private static final RowMapper<MascotaDTO> ROW = (rs, rowNum) -> new MascotaDTO(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9));
+
+    private final JdbcTemplate jdbc;
+
+    // Cursor reads only; on MySQL the fetch size needs useCursorFetch=true on the URL
+    private final JdbcTemplate cursor;
+
+    public MascotaReadRepository(DataSource dataSource,
+                                 @Value("${petstore.jdbc.fetch-size:1000}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(fetchSize);
+    }
+
+    public List<MascotaDTO> findAll() {
+        return jdbc.query(SELECT + "ORDER BY m.num_cliente", ROW);
+    }
+
+    // Keyset page, like MascotaRepository#findPageDTO
+    public List<MascotaDTO> findPage(long afterId, int limit) {
+        return jdbc.query(SELECT + "WHERE m.num_cliente > ? ORDER BY m.num_cliente LIMIT ?", ROW, afterId, limit);
+    }
+
+    public List<MascotaDTO> findAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbc.query(SELECT + "WHERE m.num_cliente IN (" + placeholders + ") ORDER BY m.num_cliente",
+                ROW, ids.toArray());
+    }
+
+    /** Keyset page of the pets matching {@code criteria}; same filters as {@link MascotaSpecifications}. */
+    public List<MascotaDTO> search(MascotaSearchCriteria criteria, long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        return jdbc.query(searchSql(criteria, afterId, limit, args), ROW, args.toArray());
+    }
+
+    // Adds the bind values to args; MascotaSearchIndexTest EXPLAINs this same statement
+    String searchSql(MascotaSearchCriteria criteria, long afterId, int limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE 1 = 1");
+        appendFilters(criteria, sql, args);
+        // Left out of the first page so the optimizer is free to pick a filter index
+        if (afterId > 0) {
+            sql.append(" AND m.num_cliente > ?");
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY m.num_cliente LIMIT ?");
+        args.add(limit);
+        return sql.toString();
+    }
+
+    public long count(MascotaSearchCriteria criteria) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM mascotas m WHERE 1 = 1");
+        appendFilters(criteria, sql, args);
+        Long count = jdbc.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Cursor over every pet in id order. Must be consumed inside a transaction and
+     * closed by the caller, which releases the statement and its result set.
+     */
+    public Stream<MascotaDTO> streamAll() {
+        return cursor.queryForStream(SELECT + "ORDER BY m.num_cliente", ROW);
+    }
+
+    // The same filters as MascotaSpecifications#matching
+    private static void appendFilters(MascotaSearchCriteria criteria, StringBuilder sql, List<Object> args) {
+        for (MascotaSpecifications.Filter filter : MascotaSpecifications.Filter.values()) {
+            String value = filter.valueIn(criteria);
+            if (value != null) {
+                sql.append(" AND ").append(filter.column).append(" = ?");
+                args.add(value);
+            }
+        }
+    }
+}
@@ -1,10 +1,75 @@
 package com.mycompany.petstore.repository;
 
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaVersion;
 import com.mycompany.petstore.model.Mascota;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface MascotaRepository extends JpaRepository<Mascota, Long> {
-    // Custom query methods can be added here if needed
+public interface MascotaRepository extends JpaRepository<Mascota, Long>,
+        JpaSpecificationExecutor<Mascota>, MascotaSearchRepository {
+
+    // DTO reads project straight into MascotaDTO with a single joined query, so the
+    // lazy Duenio is never initialised one row at a time (N+1). Full listings go
+    // through MascotaReadRepository instead.
+    // Hot lookups go through the query cache; any write to mascotas or duenios invalidates them
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.mycompany.petstore.dto.MascotaDTO(" +
+            "m.id, m.nombre, m.raza, m.color, m.alergico, m.atencionEspecial, m.observaciones, " +
+            "d.nombre, d.celular) " +
+            "FROM Mascota m LEFT JOIN m.duenio d " +
+            "WHERE m.id = :id")
+    Optional<MascotaDTO> findDTOById(@Param("id") Long id);
+
+    // Version-only lookup for conditional requests: two primary-key reads, no text columns
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.mycompany.petstore.dto.MascotaVersion(m.id, m.version, d.version) " +
+            "FROM Mascota m LEFT JOIN m.duenio d " +
+            "WHERE m.id = :id")
+    Optional<MascotaVersion> findVersionById(@Param("id") Long id);
+
+    // Keyset page: seeks past the last id seen instead of using OFFSET, so every
+    // page costs the same. Pass an unsorted Pageable to carry the row limit only.
+    @Query("SELECT new com.mycompany.petstore.dto.MascotaDTO(" +
+            "m.id, m.nombre, m.raza, m.color, m.alergico, m.atencionEspecial, m.observaciones, " +
+            "d.nombre, d.celular) " +
+            "FROM Mascota m LEFT JOIN m.duenio d " +
+            "WHERE m.id > :afterId " +
+            "ORDER BY m.id")
+    List<MascotaDTO> findPageDTO(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Cursor over every pet, used by the search index rebuilds (exports read through
+    // MascotaReadRepository). Must be consumed inside a transaction and
+    // closed by the caller; on MySQL the fetch size is only honoured with
+    // useCursorFetch=true on the JDBC URL, otherwise the driver buffers the result.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.mycompany.petstore.dto.MascotaDTO(" +
+            "m.id, m.nombre, m.raza, m.color, m.alergico, m.atencionEspecial, m.observaciones, " +
+            "d.nombre, d.celular) " +
+            "FROM Mascota m LEFT JOIN m.duenio d " +
+            "ORDER BY m.id")
+    Stream<MascotaDTO> streamAllDTO();
+
+    long countByDuenioId(Long duenioId);
+
+    @Query("SELECT m.id FROM Mascota m WHERE m.duenio.id = :duenioId")
+    List<Long> findIdsByDuenioId(@Param("duenioId") Long duenioId);
 }
@@ -0,0 +1,15 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.model.Mascota;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface MascotaSearchRepository {
+
+    // Only the selected columns, keyed by JSON field name, ordered by id. A limit of 0 means no limit.
+    List<Map<String, Object>> findFields(Set<MascotaField> fields, Specification<Mascota> spec, int limit);
+}
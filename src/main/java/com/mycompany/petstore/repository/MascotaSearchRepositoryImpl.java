@@ -0,0 +1,66 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class MascotaSearchRepositoryImpl implements MascotaSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<MascotaField> fields, Specification<Mascota> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Mascota> m = query.from(Mascota.class);
+        Join<Mascota, Duenio> d = fields.stream().anyMatch(MascotaField::isDuenio)
+                ? m.join("duenio", JoinType.LEFT)
+                : null;
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (MascotaField field : fields) {
+            Selection<?> path = field.isDuenio() ? d.get(field.getAttribute()) : m.get(field.getAttribute());
+            selections.add(path.alias(field.getJsonName()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(m, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(m.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit > 0) {
+            typed.setMaxResults(limit);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typed.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (MascotaField field : fields) {
+                row.put(field.getJsonName(), tuple.get(field.getJsonName()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.model.Mascota;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.function.Function;
+
+/**
+ * Predicates for pet searches. Every filter is a plain equality so that any
+ * combination can use one of the composite indexes declared on {@link Mascota}.
+ */
+public final class MascotaSpecifications {
+
+    /**
+     * The search filters, with their entity attribute and column. {@link MascotaReadRepository}
+     * builds its SQL from the same list, so both search paths filter alike.
+     */
+    enum Filter {
+        RAZA("raza", "m.raza", MascotaSearchCriteria::getRaza),
+        COLOR("color", "m.color", MascotaSearchCriteria::getColor),
+        ALERGICO("alergico", "m.alergico", MascotaSearchCriteria::getAlergico),
+        ATENCION_ESPECIAL("atencionEspecial", "m.atencion_especial", MascotaSearchCriteria::getAtencionEspecial);
+
+        final String attribute;
+        final String column;
+        private final Function<MascotaSearchCriteria, String> value;
+
+        Filter(String attribute, String column, Function<MascotaSearchCriteria, String> value) {
+            this.attribute = attribute;
+            this.column = column;
+            this.value = value;
+        }
+
+        // The trimmed value, or null when it is blank and the filter is left out
+        String valueIn(MascotaSearchCriteria criteria) {
+            String raw = value.apply(criteria);
+            return raw == null || raw.isBlank() ? null : raw.trim();
+        }
+    }
+
+    private MascotaSpecifications() {
+    }
+
+    public static Specification<Mascota> matching(MascotaSearchCriteria criteria) {
+        Specification<Mascota> spec = Specification.where(null);
+        for (Filter filter : Filter.values()) {
+            spec = spec.and(attributeEquals(filter.attribute, filter.valueIn(criteria)));
+        }
+        return spec;
+    }
+
+    public static Specification<Mascota> idGreaterThan(Long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    // A null specification is skipped by and(), which leaves the filter out entirely
+    private static Specification<Mascota> attributeEquals(String attribute, String value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
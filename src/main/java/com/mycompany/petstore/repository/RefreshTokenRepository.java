@@ -0,0 +1,33 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    List<RefreshToken> findByUsedFalseAndExpiresAtAfter(Instant now);
+
+    // Conditional so two concurrent refreshes with the same token cannot both succeed
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true WHERE t.id = :id AND t.used = false")
+    int markUsed(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") Long familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,394 @@
+package com.mycompany.petstore.search;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead over pet and owner names, so the reception UI does not run a LIKE
+ * query per keystroke. Every word start of a name is an entry ("per" finds
+ * "Juan Pérez"), matched accent- and case-insensitively.
+ * <p>
+ * Entries are kept in parallel sorted arrays pointing into interned names, which
+ * costs {@value #BYTES_PER_ENTRY} bytes per entry plus one copy of each distinct
+ * name. Changes go to a small sorted buffer that is merged into the arrays once
+ * it reaches {@link #MAX_PENDING} entries. Changes made while {@link #rebuild()}
+ * reads the database are replayed onto the rebuilt index.
+ */
+@Slf4j
+@Component
+public class NameAutocompleteIndex {
+
+    public enum Kind { MASCOTA, DUENIO }
+
+    public record Suggestion(Kind kind, long id, String nombre) {
+    }
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    // folded + label references (4 + 4 with compressed oops), offset (2) and ref (8)
+    static final int BYTES_PER_ENTRY = 18;
+    static final int MAX_PENDING = 1024;
+
+    private record Entry(String folded, short offset, String label, long ref) {
+    }
+
+    // A null nombre is a removal
+    private record Change(Kind kind, Long id, String nombre) {
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = (a, b) -> {
+        int bySuffix = compareSuffix(a.folded, a.offset, b.folded, b.offset);
+        return bySuffix != 0 ? bySuffix : Long.compare(a.ref, b.ref);
+    };
+
+    private static final PageRequest STREAM_PAGE = PageRequest.of(0, ShardRouter.STREAM_PAGE_SIZE);
+
+    private final MascotaRepository mascotaRepository;
+    private final DuenioRepository duenioRepository;
+    private final ShardRouter shards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] folded = new String[0];
+    private short[] offsets = new short[0];
+    private String[] labels = new String[0];
+    private long[] refs = new long[0];
+
+    private final List<Entry> pending = new ArrayList<>();
+    // Names replaced or deleted since the last merge; their entries in the arrays are skipped
+    private final Set<Long> removedFromBase = new HashSet<>();
+    private List<Change> duringRebuild;
+
+    public NameAutocompleteIndex(MascotaRepository mascotaRepository, DuenioRepository duenioRepository,
+                                 ShardRouter shards, PlatformTransactionManager transactionManager) {
+        this.mascotaRepository = mascotaRepository;
+        this.duenioRepository = duenioRepository;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Suggestion> names = new ArrayList<>();
+        List<Change> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            duringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            readNames(names);
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            duringRebuild = null;
+            replaceAll(names);
+            // The names read may already include some of these; applying them again changes nothing
+            changes.forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} names for autocomplete in {} ms", names.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void readNames(List<Suggestion> names) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<MascotaDTO> mascotas = shards.streamAll(mascotaRepository::streamAllDTO, (shard, last) ->
+                    mascotaRepository.findPageDTO(last == null ? 0L : last.getId(), STREAM_PAGE),
+                    Comparator.comparing(MascotaDTO::getId))) {
+                mascotas.forEach(m -> names.add(new Suggestion(Kind.MASCOTA, m.getId(), m.getNombre())));
+            }
+            try (Stream<Duenio> duenios = shards.streamAll(duenioRepository::streamAll, (shard, last) ->
+                    duenioRepository.findByIdGreaterThanOrderByIdAsc(last == null ? 0L : last.getId(), STREAM_PAGE),
+                    Comparator.comparing(Duenio::getId))) {
+                duenios.forEach(d -> names.add(new Suggestion(Kind.DUENIO, d.getId(), d.getNombre())));
+            }
+        });
+    }
+
+    // Bulk load: one sort instead of a merge per buffer of changes
+    public void replaceAll(Collection<Suggestion> names) {
+        List<Entry> entries = new ArrayList<>(names.size() * 2);
+        names.forEach(n -> addEntries(entries, n.kind(), n.id(), n.nombre()));
+        entries.sort(ENTRY_ORDER);
+
+        lock.writeLock().lock();
+        try {
+            pending.clear();
+            removedFromBase.clear();
+            replaceBase(entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Kind kind, Long id, String nombre) {
+        record(new Change(kind, id, nombre));
+    }
+
+    public void remove(Kind kind, Long id) {
+        record(new Change(kind, id, null));
+    }
+
+    public void putAfterCommit(Kind kind, Long id, String nombre) {
+        AfterCommit.run(() -> put(kind, id, nombre));
+    }
+
+    public void removeAfterCommit(Kind kind, Long id) {
+        AfterCommit.run(() -> remove(kind, id));
+    }
+
+    /** Names with a word starting with {@code query}, in alphabetical order of the matched word. */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = fold(query == null ? "" : query);
+        int max = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        List<Suggestion> suggestions = new ArrayList<>(max);
+        if (prefix.isEmpty()) {
+            return suggestions;
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            int b = lowerBound(prefix);
+            int p = lowerBoundPending(prefix);
+            while (suggestions.size() < max) {
+                boolean baseMatches = b < refs.length && folded[b].startsWith(prefix, offsets[b]);
+                boolean pendingMatches = p < pending.size()
+                        && pending.get(p).folded.startsWith(prefix, pending.get(p).offset);
+                if (!baseMatches && !pendingMatches) {
+                    break;
+                }
+                boolean takeBase = baseMatches && (!pendingMatches || compareSuffix(
+                        folded[b], offsets[b], pending.get(p).folded, pending.get(p).offset) <= 0);
+                long ref;
+                String label;
+                if (takeBase) {
+                    ref = refs[b];
+                    label = labels[b++];
+                    if (removedFromBase.contains(ref)) {
+                        continue;
+                    }
+                } else {
+                    Entry entry = pending.get(p++);
+                    ref = entry.ref;
+                    label = entry.label;
+                }
+                if (seen.add(ref)) {
+                    suggestions.add(new Suggestion(Kind.values()[(int) (ref & 1)], ref >>> 1, label));
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return refs.length + pending.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void record(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(change);
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        removeRef(ref(change.kind(), change.id()));
+        List<Entry> entries = new ArrayList<>();
+        addEntries(entries, change.kind(), change.id(), change.nombre());
+        for (Entry entry : entries) {
+            int position = -(Collections.binarySearch(pending, entry, ENTRY_ORDER) + 1);
+            pending.add(position, entry);
+        }
+        compactIfNeeded();
+    }
+
+    private void removeRef(long ref) {
+        pending.removeIf(entry -> entry.ref == ref);
+        removedFromBase.add(ref);
+    }
+
+    // Linear merge of the arrays (minus removed names) with the sorted buffer
+    private void compactIfNeeded() {
+        if (pending.size() + removedFromBase.size() < MAX_PENDING) {
+            return;
+        }
+        int capacity = refs.length + pending.size();
+        String[] mergedFolded = new String[capacity];
+        short[] mergedOffsets = new short[capacity];
+        String[] mergedLabels = new String[capacity];
+        long[] mergedRefs = new long[capacity];
+        int n = 0;
+        int p = 0;
+        for (int b = 0; b <= refs.length; b++) {
+            boolean last = b == refs.length;
+            if (!last && removedFromBase.contains(refs[b])) {
+                continue;
+            }
+            while (p < pending.size() && (last || compareToBase(pending.get(p), b) < 0)) {
+                Entry entry = pending.get(p++);
+                mergedFolded[n] = entry.folded;
+                mergedOffsets[n] = entry.offset;
+                mergedLabels[n] = entry.label;
+                mergedRefs[n++] = entry.ref;
+            }
+            if (!last) {
+                mergedFolded[n] = folded[b];
+                mergedOffsets[n] = offsets[b];
+                mergedLabels[n] = labels[b];
+                mergedRefs[n++] = refs[b];
+            }
+        }
+        folded = Arrays.copyOf(mergedFolded, n);
+        offsets = Arrays.copyOf(mergedOffsets, n);
+        labels = Arrays.copyOf(mergedLabels, n);
+        refs = Arrays.copyOf(mergedRefs, n);
+        pending.clear();
+        removedFromBase.clear();
+    }
+
+    private int compareToBase(Entry entry, int b) {
+        int bySuffix = compareSuffix(entry.folded, entry.offset, folded[b], offsets[b]);
+        return bySuffix != 0 ? bySuffix : Long.compare(entry.ref, refs[b]);
+    }
+
+    private void replaceBase(List<Entry> entries) {
+        int n = entries.size();
+        folded = new String[n];
+        offsets = new short[n];
+        labels = new String[n];
+        refs = new long[n];
+        for (int i = 0; i < n; i++) {
+            Entry entry = entries.get(i);
+            folded[i] = entry.folded;
+            offsets[i] = entry.offset;
+            labels[i] = entry.label;
+            refs[i] = entry.ref;
+        }
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = refs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(folded[mid], offsets[mid], prefix, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBoundPending(String prefix) {
+        int low = 0;
+        int high = pending.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(pending.get(mid).folded, pending.get(mid).offset, prefix, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addEntries(List<Entry> entries, Kind kind, Long id, String nombre) {
+        if (nombre == null) {
+            return;
+        }
+        String foldedName = fold(nombre).intern();
+        if (foldedName.isEmpty()) {
+            return;
+        }
+        String label = nombre.intern();
+        long ref = ref(kind, id);
+        int limit = Math.min(foldedName.length(), Short.MAX_VALUE);
+        for (int i = 0; i < limit; i++) {
+            if (i == 0 || foldedName.charAt(i - 1) == ' ') {
+                entries.add(new Entry(foldedName, (short) i, label, ref));
+            }
+        }
+    }
+
+    // Accent-folded, lower-cased words separated by single spaces
+    private static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        for (String word : SpanishAnalyzer.fold(text).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!word.isEmpty()) {
+                if (!folded.isEmpty()) {
+                    folded.append(' ');
+                }
+                folded.append(word);
+            }
+        }
+        return folded.toString();
+    }
+
+    private static long ref(Kind kind, Long id) {
+        return (id << 1) | kind.ordinal();
+    }
+
+    private static int compareSuffix(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int n = Math.min(aLength, bLength);
+        for (int i = 0; i < n; i++) {
+            int diff = a.charAt(aOffset + i) - b.charAt(bOffset + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aLength - bLength;
+    }
+}
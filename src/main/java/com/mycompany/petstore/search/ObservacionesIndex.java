@@ -0,0 +1,311 @@
+package com.mycompany.petstore.search;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over {@code Mascota.observaciones}, so note searches
+ * do not need a {@code LIKE '%x%'} table scan. Built from the database once the
+ * application is ready and kept current by {@code MascotaService}, which reports
+ * changes after their transaction commits. There is no forward index: a change
+ * carries the previous notes, whose terms are the ones to drop.
+ */
+@Slf4j
+@Component
+public class ObservacionesIndex {
+
+    public record Hit(long mascotaId, double score) {
+    }
+
+    private static final Comparator<Hit> WORST_FIRST =
+            Comparator.comparingDouble(Hit::score).thenComparing(Hit::mascotaId, Comparator.reverseOrder());
+
+    private static final PageRequest STREAM_PAGE = PageRequest.of(0, ShardRouter.STREAM_PAGE_SIZE);
+
+    private final MascotaRepository mascotaRepository;
+    private final ShardRouter shards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Change(long mascotaId, String previous, String current) {
+    }
+
+    private Map<String, PostingsList> postings = new HashMap<>();
+    // Pets with at least one term; the document count for IDF
+    private PostingsList documents = new PostingsList();
+    // Changes made while a rebuild reads the database, replayed onto the new index
+    private List<Change> duringRebuild;
+
+    public ObservacionesIndex(MascotaRepository mascotaRepository, ShardRouter shards,
+                              PlatformTransactionManager transactionManager) {
+        this.mascotaRepository = mascotaRepository;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<String, PostingsList> newPostings = new HashMap<>();
+        PostingsList newDocuments = new PostingsList();
+        List<Change> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            duringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            // Rows arrive in id order, so every id is appended to the end of its postings lists
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MascotaDTO> mascotas = shards.streamAll(mascotaRepository::streamAllDTO, (shard, last) ->
+                        mascotaRepository.findPageDTO(last == null ? 0L : last.getId(), STREAM_PAGE),
+                        Comparator.comparing(MascotaDTO::getId))) {
+                    mascotas.forEach(m -> addDocument(newPostings, newDocuments, m.getId(), m.getObservaciones()));
+                }
+            });
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The rows read may already include some of these; applying them again changes nothing
+            changes.forEach(change -> apply(newPostings, newDocuments, change));
+            postings = newPostings;
+            documents = newDocuments;
+            duringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed observaciones of {} mascotas ({} terms) in {} ms",
+                newDocuments.size(), newPostings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Replaces the terms of {@code previous} (null for a new pet) with those of {@code observaciones}. */
+    public void index(Long mascotaId, String previous, String observaciones) {
+        Change change = new Change(mascotaId, previous, observaciones);
+        lock.writeLock().lock();
+        try {
+            apply(postings, documents, change);
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long mascotaId, String observaciones) {
+        index(mascotaId, observaciones, null);
+    }
+
+    public void indexAfterCommit(Long mascotaId, String previous, String observaciones) {
+        AfterCommit.run(() -> index(mascotaId, previous, observaciones));
+    }
+
+    public void removeAfterCommit(Long mascotaId, String observaciones) {
+        AfterCommit.run(() -> remove(mascotaId, observaciones));
+    }
+
+    /**
+     * Pets whose notes contain any of the query terms, best first. A pet scores the
+     * sum of the IDF of the terms it matches, so rare words like "otitis" weigh more
+     * than common ones; ties go to the lowest id.
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> terms = SpanishAnalyzer.terms(query);
+        lock.readLock().lock();
+        try {
+            int documents = this.documents.size();
+            List<TermCursor> cursors = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingsList list = postings.get(term);
+                if (list != null && !list.isEmpty()) {
+                    double idf = Math.log(1.0 + (double) documents / list.size());
+                    cursors.add(new TermCursor(list.iterator(), idf));
+                }
+            }
+            return topHits(cursors, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Max-score top-k: pets are visited in id order, so once the results are full a
+     * pet must score strictly above the worst kept one to get in. The terms are taken
+     * from lowest IDF up; the longest run of them whose IDFs add up to no more than
+     * that score is non-essential, since a pet matching only those cannot get in.
+     * Candidates come from the other lists alone and the non-essential ones are only
+     * probed, with skips, for those candidates. Once every term is non-essential the
+     * search ends: common-term queries stop after the first few full matches.
+     */
+    private static List<Hit> topHits(List<TermCursor> cursors, int limit) {
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.idf));
+        double[] bound = new double[cursors.size()];
+        for (int i = 0; i < bound.length; i++) {
+            bound[i] = cursors.get(i).idf + (i > 0 ? bound[i - 1] : 0);
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        boolean[] matched = new boolean[cursors.size()];
+        int essential = 0;
+        while (essential < bound.length) {
+            long id = Long.MAX_VALUE;
+            for (int i = essential; i < cursors.size(); i++) {
+                long current = cursors.get(i).current;
+                if (current >= 0 && current < id) {
+                    id = current;
+                }
+            }
+            if (id == Long.MAX_VALUE) {
+                break;
+            }
+            double score = 0;
+            for (int i = essential; i < cursors.size(); i++) {
+                TermCursor cursor = cursors.get(i);
+                if (cursor.current == id) {
+                    matched[i] = true;
+                    score += cursor.idf;
+                    cursor.next();
+                }
+            }
+            double threshold = best.size() < limit ? 0 : best.peek().score();
+            for (int i = essential - 1; i >= 0 && score + bound[i] > threshold; i--) {
+                TermCursor cursor = cursors.get(i);
+                cursor.advance(id);
+                if (cursor.current == id) {
+                    matched[i] = true;
+                    score += cursor.idf;
+                }
+            }
+
+            Hit hit = new Hit(id, score(cursors, matched));
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (WORST_FIRST.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+            if (best.size() == limit) {
+                while (essential < bound.length && bound[essential] <= best.peek().score()) {
+                    essential++;
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    // Summed in term order, so pets matching the same terms tie exactly; clears matched
+    private static double score(List<TermCursor> cursors, boolean[] matched) {
+        double score = 0;
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i]) {
+                score += cursors.get(i).idf;
+                matched[i] = false;
+            }
+        }
+        return score;
+    }
+
+    // For the initial build only, where every id is new
+    private static void addDocument(Map<String, PostingsList> postings, PostingsList documents,
+                                    long mascotaId, String observaciones) {
+        Set<String> terms = SpanishAnalyzer.terms(observaciones);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new PostingsList()).add(mascotaId);
+        }
+        documents.add(mascotaId);
+    }
+
+    // Idempotent, so a change can be replayed onto an index that already has it
+    private static void apply(Map<String, PostingsList> postings, PostingsList documents, Change change) {
+        long id = change.mascotaId();
+        Set<String> current = SpanishAnalyzer.terms(change.current());
+        for (String term : SpanishAnalyzer.terms(change.previous())) {
+            PostingsList list = postings.get(term);
+            if (!current.contains(term) && list != null && list.contains(id)) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : current) {
+            PostingsList list = postings.computeIfAbsent(term, t -> new PostingsList());
+            if (!list.contains(id)) {
+                list.add(id);
+            }
+        }
+        boolean indexed = documents.contains(id);
+        if (current.isEmpty() && indexed) {
+            documents.remove(id);
+        } else if (!current.isEmpty() && !indexed) {
+            documents.add(id);
+        }
+    }
+
+    // The id a term's postings are at, or -1 once they are exhausted
+    private static final class TermCursor {
+        private final PostingsList.IdIterator ids;
+        private final double idf;
+        private long current;
+
+        TermCursor(PostingsList.IdIterator ids, double idf) {
+            this.ids = ids;
+            this.idf = idf;
+            next();
+        }
+
+        void next() {
+            current = ids.hasNext() ? ids.nextLong() : -1;
+        }
+
+        void advance(long target) {
+            if (current >= 0 && current < target) {
+                current = ids.advance(target);
+            }
+        }
+    }
+}
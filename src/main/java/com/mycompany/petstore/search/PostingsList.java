@@ -0,0 +1,256 @@
+package com.mycompany.petstore.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sorted set of pet ids for one term, stored as variable-length encoded gaps
+ * between consecutive ids (one or two bytes per id for dense terms).
+ * <p>
+ * Ids above the last encoded one are appended in place, which covers the initial
+ * build and newly created pets. Other changes are buffered and folded into the
+ * encoded block once the buffer grows past {@link #MAX_PENDING}.
+ * <p>
+ * Every {@link #SKIP_INTERVAL} encoded ids a skip entry records the id reached and
+ * its byte offset, so membership checks and {@link IdIterator#advance} decode one
+ * block instead of the whole list.
+ * Not thread-safe; {@link ObservacionesIndex} guards access.
+ */
+final class PostingsList {
+
+    static final int MAX_PENDING = 256;
+    static final int SKIP_INTERVAL = 128;
+
+    private byte[] encoded = new byte[8];
+    private int length;
+    private int encodedCount;
+    private long lastEncoded;
+
+    // Decoding may resume at skipPositions[i] with skipIds[i] as the previous id
+    private long[] skipIds = new long[0];
+    private int[] skipPositions = new int[0];
+    private int skipCount;
+
+    private final TreeSet<Long> added = new TreeSet<>();
+    private final Set<Long> removed = new HashSet<>();
+
+    // Callers only add ids that are not in the list yet
+    void add(long id) {
+        if (removed.remove(id)) {
+            return;
+        }
+        if (added.isEmpty() && id > lastEncoded) {
+            append(id);
+            return;
+        }
+        added.add(id);
+        compactIfNeeded();
+    }
+
+    // Callers only remove ids that are in the list
+    void remove(long id) {
+        if (!added.remove(id)) {
+            removed.add(id);
+            compactIfNeeded();
+        }
+    }
+
+    boolean contains(long id) {
+        if (added.contains(id)) {
+            return true;
+        }
+        if (removed.contains(id) || id > lastEncoded) {
+            return false;
+        }
+        return new DecodingIterator().advance(id) == id;
+    }
+
+    int size() {
+        return encodedCount + added.size() - removed.size();
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int encodedBytes() {
+        return length;
+    }
+
+    /** Ids in ascending order, including pending changes. */
+    IdIterator iterator() {
+        return new MergingIterator(new DecodingIterator(), added, removed);
+    }
+
+    private void compactIfNeeded() {
+        if (added.size() + removed.size() < MAX_PENDING) {
+            return;
+        }
+        long[] snapshot = new long[size()];
+        PrimitiveIterator.OfLong ids = iterator();
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = ids.nextLong();
+        }
+        encoded = new byte[Math.max(8, length)];
+        length = 0;
+        encodedCount = 0;
+        lastEncoded = 0;
+        skipCount = 0;
+        added.clear();
+        removed.clear();
+        for (long id : snapshot) {
+            append(id);
+        }
+    }
+
+    private void append(long id) {
+        long gap = id - lastEncoded;
+        if (length + 10 > encoded.length) {
+            encoded = Arrays.copyOf(encoded, encoded.length * 2);
+        }
+        while ((gap & ~0x7FL) != 0) {
+            encoded[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        encoded[length++] = (byte) gap;
+        lastEncoded = id;
+        encodedCount++;
+        if (encodedCount % SKIP_INTERVAL == 0) {
+            if (skipCount == skipIds.length) {
+                skipIds = Arrays.copyOf(skipIds, Math.max(8, skipCount * 2));
+                skipPositions = Arrays.copyOf(skipPositions, skipIds.length);
+            }
+            skipIds[skipCount] = id;
+            skipPositions[skipCount] = length;
+            skipCount++;
+        }
+    }
+
+    // Last skip entry whose id is below target, or -1
+    private int skipBefore(long target) {
+        int low = 0;
+        int high = skipCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (skipIds[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /** Ascending ids that can jump ahead. */
+    interface IdIterator extends PrimitiveIterator.OfLong {
+
+        /** Consumes ids up to the first one not below {@code target} and returns it, or -1 if none is left. */
+        long advance(long target);
+    }
+
+    private final class DecodingIterator implements IdIterator {
+        private int position;
+        private long current;
+
+        @Override
+        public long advance(long target) {
+            int skip = skipBefore(target);
+            if (skip >= 0 && skipPositions[skip] > position) {
+                position = skipPositions[skip];
+                current = skipIds[skip];
+            }
+            while (hasNext()) {
+                long id = nextLong();
+                if (id >= target) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < length;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[position++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            current += gap;
+            return current;
+        }
+    }
+
+    private static final class MergingIterator implements IdIterator {
+        private final IdIterator base;
+        private final Iterator<Long> extra;
+        private final Set<Long> skipped;
+        private long nextBase = -1;
+        private long nextExtra = -1;
+
+        MergingIterator(IdIterator base, NavigableSet<Long> extra, Set<Long> skipped) {
+            this.base = base;
+            this.extra = extra.iterator();
+            this.skipped = skipped;
+            advanceBase(base.hasNext() ? base.nextLong() : -1);
+            nextExtra = this.extra.hasNext() ? this.extra.next() : -1;
+        }
+
+        @Override
+        public long advance(long target) {
+            if (nextBase >= 0 && nextBase < target) {
+                advanceBase(base.advance(target));
+            }
+            // At most MAX_PENDING of these
+            while (nextExtra >= 0 && nextExtra < target) {
+                nextExtra = extra.hasNext() ? extra.next() : -1;
+            }
+            return hasNext() ? nextLong() : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextBase >= 0 || nextExtra >= 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long result;
+            if (nextExtra < 0 || (nextBase >= 0 && nextBase < nextExtra)) {
+                result = nextBase;
+                advanceBase(base.hasNext() ? base.nextLong() : -1);
+            } else {
+                result = nextExtra;
+                nextExtra = extra.hasNext() ? extra.next() : -1;
+            }
+            return result;
+        }
+
+        // Takes the base's next id, or -1 when it has none, skipping removed ids
+        private void advanceBase(long candidate) {
+            while (candidate >= 0 && !skipped.isEmpty() && skipped.contains(candidate)) {
+                candidate = base.hasNext() ? base.nextLong() : -1;
+            }
+            nextBase = candidate;
+        }
+    }
+}
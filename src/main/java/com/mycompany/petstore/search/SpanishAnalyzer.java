@@ -0,0 +1,45 @@
+package com.mycompany.petstore.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits free text into index terms: lower-cased, accent-folded ("sedación" and
+ * "sedacion" are the same term) and without the most common Spanish stop words.
+ */
+public final class SpanishAnalyzer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // "no" and "sin" are kept on purpose: they carry meaning in grooming notes
+    private static final Set<String> STOP_WORDS = Set.of(
+            "de", "la", "que", "el", "en", "y", "a", "los", "se", "del", "las", "un", "por",
+            "con", "una", "su", "para", "es", "al", "lo", "como", "mas", "o", "pero", "sus",
+            "le", "ya", "muy", "sobre", "e", "u", "les", "este", "esta");
+
+    private SpanishAnalyzer() {
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct terms in order of first appearance
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.petstore.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.petstore.exception.ErrorResponse;
+import com.mycompany.petstore.model.ApiKeyScope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates requests carrying an {@value #HEADER} header. Requests without one
+ * continue to {@link JwtAuthenticationFilter}. A presented key must be valid, hold
+ * the scope for the HTTP method and be within its quota; otherwise the request is
+ * answered here.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-API-Key";
+
+    private final ApiKeyAuthenticator apiKeyAuthenticator;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        final String apiKey = request.getHeader(HEADER);
+        if (apiKey == null || apiKey.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Checked before the lookup, so guessing keys cannot keep the database busy
+        long blockedNanos = apiKeyAuthenticator.invalidAttemptWait(request.getRemoteAddr());
+        if (blockedNanos > 0) {
+            retryAfter(response, blockedNanos);
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many invalid API keys");
+            return;
+        }
+
+        Optional<ApiKeyPrincipal> principal = apiKeyAuthenticator.authenticate(apiKey);
+        if (principal.isEmpty()) {
+            apiKeyAuthenticator.recordInvalidAttempt(request.getRemoteAddr());
+            reject(request, response, HttpStatus.UNAUTHORIZED, "Invalid API key");
+            return;
+        }
+        if (!principal.get().scopes().contains(requiredScope(request))) {
+            reject(request, response, HttpStatus.FORBIDDEN, "API key lacks the required scope");
+            return;
+        }
+        long waitNanos = apiKeyAuthenticator.acquire(principal.get());
+        if (waitNanos > 0) {
+            retryAfter(response, waitNanos);
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "API key quota exceeded");
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal.get(),
+                null,
+                principal.get().getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        filterChain.doFilter(request, response);
+    }
+
+    private static ApiKeyScope requiredScope(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? ApiKeyScope.READ : ApiKeyScope.WRITE;
+    }
+
+    private static void retryAfter(HttpServletResponse response, long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+    }
+
+    // Filters run outside the dispatcher, so GlobalExceptionHandler cannot write these
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponse body = new ErrorResponse(status.value(), message, "uri=" + request.getRequestURI(),
+                LocalDateTime.now());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
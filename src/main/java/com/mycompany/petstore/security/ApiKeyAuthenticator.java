@@ -0,0 +1,139 @@
+package com.mycompany.petstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.petstore.model.ApiKey;
+import com.mycompany.petstore.repository.ApiKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves presented API keys. Keys are looked up by their SHA-256, so response
+ * timing can only reveal bits of a hash, never of a key. Known keys are cached so
+ * they are verified without touching the database; revocations made on another
+ * instance take effect once the cached entry expires. Misses go to a small,
+ * short-lived cache of their own so that random keys cannot push valid ones out,
+ * and clients presenting invalid keys are limited per IP before any lookup.
+ */
+@Component
+public class ApiKeyAuthenticator {
+
+    private static final Duration QUOTA_PERIOD = Duration.ofMinutes(1);
+    private static final long MAX_CACHED_MISSES = 1_000;
+    private static final long MAX_TRACKED_CLIENTS = 100_000;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final Cache<ByteBuffer, ApiKeyPrincipal> keys;
+    private final Cache<ByteBuffer, Boolean> misses;
+    private final int invalidAttemptLimit;
+    private final LongSupplier nanoTime;
+
+    // Quota buckets by key id, kept apart from the cache so expiring an entry does not refill them
+    private final Map<Long, TokenBucket> quotas = new ConcurrentHashMap<>();
+
+    // Invalid key attempts by client IP. A bucket idle for a whole period is full
+    // again, so dropping it then loses nothing.
+    private final Cache<String, TokenBucket> invalidAttempts = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .expireAfterAccess(QUOTA_PERIOD)
+            .build();
+
+    @Autowired
+    public ApiKeyAuthenticator(
+            ApiKeyRepository apiKeyRepository,
+            @Value("${petstore.api-keys.cache-size:10000}") long cacheSize,
+            @Value("${petstore.api-keys.cache-ttl:60s}") Duration cacheTtl,
+            @Value("${petstore.api-keys.miss-cache-ttl:5s}") Duration missCacheTtl,
+            @Value("${petstore.api-keys.invalid-attempt-limit:10}") int invalidAttemptLimit) {
+        this(apiKeyRepository, cacheSize, cacheTtl, missCacheTtl, invalidAttemptLimit, System::nanoTime);
+    }
+
+    ApiKeyAuthenticator(ApiKeyRepository apiKeyRepository, long cacheSize, Duration cacheTtl, Duration missCacheTtl,
+                        int invalidAttemptLimit, LongSupplier nanoTime) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_MISSES)
+                .expireAfterWrite(missCacheTtl)
+                .build();
+        this.invalidAttemptLimit = invalidAttemptLimit;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the principal for {@code rawKey}, or empty if the key is unknown or revoked.
+     */
+    public Optional<ApiKeyPrincipal> authenticate(String rawKey) {
+        ByteBuffer hash = ByteBuffer.wrap(hash(rawKey));
+        ApiKeyPrincipal cached = keys.getIfPresent(hash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (misses.getIfPresent(hash) != null) {
+            return Optional.empty();
+        }
+        Optional<ApiKeyPrincipal> principal = apiKeyRepository.findByKeyHashAndRevokedFalse(hash.array())
+                .map(ApiKeyAuthenticator::toPrincipal);
+        principal.ifPresentOrElse(p -> keys.put(hash, p), () -> misses.put(hash, Boolean.TRUE));
+        return principal;
+    }
+
+    /**
+     * Takes one request from the key's per-minute quota.
+     *
+     * @return 0 if allowed, otherwise the nanoseconds until the next request is
+     */
+    public long acquire(ApiKeyPrincipal principal) {
+        long now = nanoTime.getAsLong();
+        return quotas.computeIfAbsent(principal.id(),
+                id -> new TokenBucket(principal.quotaPerMinute(), QUOTA_PERIOD, now)).tryAcquire(now);
+    }
+
+    /**
+     * Nanoseconds until {@code clientIp} may present another key, 0 if it may now.
+     * Only invalid keys count against the limit.
+     */
+    public long invalidAttemptWait(String clientIp) {
+        TokenBucket bucket = invalidAttempts.getIfPresent(clientIp);
+        return bucket == null ? 0 : bucket.waitNanos(nanoTime.getAsLong());
+    }
+
+    public void recordInvalidAttempt(String clientIp) {
+        long now = nanoTime.getAsLong();
+        invalidAttempts.get(clientIp, ip -> new TokenBucket(invalidAttemptLimit, QUOTA_PERIOD, now)).tryAcquire(now);
+    }
+
+    public void evict(ApiKey apiKey) {
+        keys.invalidate(ByteBuffer.wrap(apiKey.getKeyHash()));
+        misses.invalidate(ByteBuffer.wrap(apiKey.getKeyHash()));
+        quotas.remove(apiKey.getId());
+    }
+
+    public static byte[] hash(String rawKey) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawKey.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static ApiKeyPrincipal toPrincipal(ApiKey apiKey) {
+        return new ApiKeyPrincipal(apiKey.getId(), apiKey.getName(), Set.copyOf(apiKey.getScopes()),
+                apiKey.getQuotaPerMinute());
+    }
+}
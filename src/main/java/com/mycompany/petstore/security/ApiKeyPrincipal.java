@@ -0,0 +1,27 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.model.ApiKeyScope;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A machine client authenticated with an API key.
+ */
+public record ApiKeyPrincipal(Long id, String name, Set<ApiKeyScope> scopes, int quotaPerMinute)
+        implements Principal {
+
+    public static final String AUTHORITY = "API_KEY";
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(AUTHORITY));
+    }
+
+    @Override
+    public String getName() {
+        return "api-key:" + name;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.petstore.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt cost whose hash time on this host is closest to a target without
+ * going below it. Each extra cost unit doubles the work, so one measurement at the
+ * minimum cost is enough to extrapolate.
+ */
+@Slf4j
+public final class BCryptCalibration {
+
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 16;
+
+    private static final int SAMPLES = 5;
+
+    private BCryptCalibration() {
+    }
+
+    public static int calibrate(Duration target) {
+        long nanos = measure(MIN_STRENGTH);
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && nanos < target.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        log.info("BCrypt cost {} selected (~{} ms per hash, target {} ms)",
+                strength, nanos / 1_000_000, target.toMillis());
+        return strength;
+    }
+
+    // Median of a few hashes, after one warm-up
+    static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
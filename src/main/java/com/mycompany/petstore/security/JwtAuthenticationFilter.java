@@ -1,27 +1,53 @@
 package com.mycompany.petstore.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 
+/**
+ * Authenticates bearer tokens. The principal is built from the verified claims;
+ * only tokens issued without the id and role claims fall back to a user lookup,
+ * and those lookups are cached briefly.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
+    private final Cache<String, UserDetails> legacyUsers;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            TokenDenylist tokenDenylist,
+            @Value("${jwt.user-cache-ttl:60s}") Duration userCacheTtl) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
+        this.legacyUsers = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(userCacheTtl)
+                .build();
+    }
 
     @Override
     protected void doFilterInternal(
@@ -31,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final Claims claims;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,17 +65,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        try {
+            // Verified once here; everything below reads the same claims
+            claims = jwtService.verify(jwt);
+        } catch (JwtException ex) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (tokenDenylist.isRevoked(claims.getId())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
         
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = authenticate(claims);
+            if (authToken != null) {
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -58,4 +88,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken authenticate(Claims claims) {
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+        if (principal != null) {
+            return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        }
+        UserDetails userDetails;
+        try {
+            userDetails = legacyUsers.get(claims.getSubject(), userDetailsService::loadUserByUsername);
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
 }
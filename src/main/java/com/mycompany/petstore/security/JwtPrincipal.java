@@ -0,0 +1,41 @@
+package com.mycompany.petstore.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The authenticated user as described by a verified access token, so requests
+ * can be authorised without loading the user row.
+ */
+public record JwtPrincipal(Long id, String username, String role) implements Principal {
+
+    public static final String ID_CLAIM = "id";
+    public static final String ROLE_CLAIM = "role";
+
+    /**
+     * Returns {@code null} for tokens issued without the id and role claims.
+     */
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Number id = claims.get(ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (id == null || role == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(id.longValue(), claims.getSubject(), role);
+    }
+
+    // Same authority names as User#getAuthorities
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits login attempts per username and per client IP before any password is
+ * hashed. Each key has a lock-free {@link TokenBucket}; buckets that have refilled
+ * completely are swept once per period.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Limit byUsername;
+    private final Limit byIp;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public LoginRateLimiter(
+            @Value("${petstore.login.username-limit:5}") int usernameLimit,
+            @Value("${petstore.login.ip-limit:20}") int ipLimit,
+            @Value("${petstore.login.period:1m}") Duration period,
+            @Value("${petstore.login.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this(usernameLimit, ipLimit, period, maxTrackedKeys, System::nanoTime);
+    }
+
+    LoginRateLimiter(int usernameLimit, int ipLimit, Duration period, long maxTrackedKeys, LongSupplier nanoTime) {
+        long now = nanoTime.getAsLong();
+        this.byUsername = new Limit(usernameLimit, period, maxTrackedKeys, now);
+        this.byIp = new Limit(ipLimit, period, maxTrackedKeys, now);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Takes one login attempt from both the username's and the IP's bucket.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquireLogin(String username, String clientIp) {
+        long now = nanoTime.getAsLong();
+        reject(byIp.tryAcquire(clientIp, now));
+        if (username != null) {
+            reject(byUsername.tryAcquire(username.toLowerCase(Locale.ROOT), now));
+        }
+    }
+
+    /**
+     * Takes one attempt from the IP's bucket only, for endpoints without a username.
+     */
+    public void acquire(String clientIp) {
+        reject(byIp.tryAcquire(clientIp, nanoTime.getAsLong()));
+    }
+
+    int trackedUsernames() {
+        return byUsername.buckets.size();
+    }
+
+    private static void reject(long waitNanos) {
+        if (waitNanos > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new TooManyRequestsException("Too many login attempts, please retry later", seconds);
+        }
+    }
+
+    private static final class Limit {
+
+        private final int permits;
+        private final Duration period;
+        private final long maxTrackedKeys;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        // Shared by new keys while the map is full of non-idle buckets
+        private final TokenBucket overflow;
+        private final AtomicLong nextSweep;
+
+        Limit(int permits, Duration period, long maxTrackedKeys, long now) {
+            this.permits = permits;
+            this.period = period;
+            this.maxTrackedKeys = maxTrackedKeys;
+            this.overflow = new TokenBucket(permits, period, now);
+            this.nextSweep = new AtomicLong(now + period.toNanos());
+        }
+
+        long tryAcquire(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = bucketFor(key, now);
+            } else {
+                sweep(now);
+            }
+            return bucket.tryAcquire(now);
+        }
+
+        private TokenBucket bucketFor(String key, long now) {
+            if (buckets.size() >= maxTrackedKeys) {
+                sweep(now);
+                if (buckets.size() >= maxTrackedKeys) {
+                    return overflow;
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new TokenBucket(permits, period, now));
+        }
+
+        // Full buckets are indistinguishable from new ones. At most one thread sweeps per
+        // period, even while the map is full: new keys then share the overflow bucket
+        // instead of scanning the map on every request.
+        private void sweep(long now) {
+            long scheduled = nextSweep.get();
+            if (now - scheduled >= 0 && nextSweep.compareAndSet(scheduled, now + period.toNanos())) {
+                buckets.values().removeIf(bucket -> bucket.isFull(now));
+            }
+        }
+    }
+}
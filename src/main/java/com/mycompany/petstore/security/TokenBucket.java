@@ -0,0 +1,51 @@
+package com.mycompany.petstore.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket allowing {@code permits} per {@code period}, kept as a single
+ * "theoretical arrival time" updated by CAS (GCRA).
+ */
+final class TokenBucket {
+
+    // Nanoseconds to earn one token, and the bucket capacity expressed as time
+    private final long interval;
+    private final long capacity;
+    private final AtomicLong tat;
+
+    TokenBucket(int permits, Duration period, long now) {
+        this.capacity = period.toNanos();
+        this.interval = capacity / Math.max(1, permits);
+        this.tat = new AtomicLong(now);
+    }
+
+    /**
+     * Returns 0 when a token was taken, otherwise the nanoseconds until one is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #tryAcquire} without taking the token: 0 if one is available.
+     */
+    long waitNanos(long now) {
+        return Math.max(0, Math.max(tat.get(), now) + interval - now - capacity);
+    }
+
+    // A full bucket behaves exactly like a new one
+    boolean isFull(long now) {
+        return tat.get() - now <= 0;
+    }
+}
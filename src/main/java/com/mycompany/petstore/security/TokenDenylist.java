@@ -0,0 +1,107 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.model.RevokedToken;
+import com.mycompany.petstore.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access token ids. The table is the source of truth; this keeps a Bloom
+ * filter and an exact map of the unexpired entries in memory, so the common case of
+ * a token that was never revoked is answered by the filter alone. Both are rebuilt
+ * from the table periodically, which also drops expired entries and picks up
+ * revocations made by other instances.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final Clock clock;
+
+    private volatile State state;
+
+    private record State(Map<String, Instant> revoked, BloomFilter bloom) {
+    }
+
+    @Autowired
+    public TokenDenylist(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.denylist.expected-size:100000}") int expectedRevocations) {
+        this(revokedTokenRepository, expectedRevocations, Clock.systemUTC());
+    }
+
+    TokenDenylist(RevokedTokenRepository revokedTokenRepository, int expectedRevocations, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.clock = clock;
+        this.state = new State(new ConcurrentHashMap<>(), new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE));
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        State current = state;
+        return current.bloom().mightContain(jti) && current.revoked().containsKey(jti);
+    }
+
+    /**
+     * Revokes the token with this id until {@code expiresAt}, when it stops being
+     * accepted anyway.
+     */
+    @Transactional
+    public synchronized void revoke(String jti, Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        State current = state;
+        current.revoked().put(jti, expiresAt);
+        current.bloom().put(jti);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.denylist.refresh-ms:30000}",
+            initialDelayString = "${jwt.denylist.refresh-ms:30000}")
+    @Transactional
+    public synchronized void reload() {
+        Instant now = clock.instant();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        Map<String, Instant> revoked = new HashMap<>();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), token.getExpiresAt());
+        }
+        // Keep local revocations whose transaction is not visible to this read yet
+        state.revoked().forEach((jti, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                revoked.putIfAbsent(jti, expiresAt);
+            }
+        });
+        BloomFilter bloom = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(bloom::put);
+        state = new State(new ConcurrentHashMap<>(revoked), bloom);
+        if (purged > 0) {
+            log.debug("Token denylist reloaded: {} revoked, {} expired purged", revoked.size(), purged);
+        }
+    }
+
+    int size() {
+        return state.revoked().size();
+    }
+}
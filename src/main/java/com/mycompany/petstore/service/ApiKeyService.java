@@ -0,0 +1,82 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.ApiKeyDTO;
+import com.mycompany.petstore.dto.ApiKeyRequest;
+import com.mycompany.petstore.model.ApiKey;
+import com.mycompany.petstore.repository.ApiKeyRepository;
+import com.mycompany.petstore.security.ApiKeyAuthenticator;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Administration of API keys. The full key is only returned by {@link #create};
+ * afterwards only its hash and prefix are known.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApiKeyService {
+
+    static final String KEY_PREFIX = "psk_";
+    private static final int KEY_BYTES = 32;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyAuthenticator apiKeyAuthenticator;
+    private final SecureRandom random = new SecureRandom();
+
+    @Transactional(readOnly = true)
+    public List<ApiKeyDTO> findAll() {
+        return apiKeyRepository.findAll().stream().map(ApiKeyDTO::from).toList();
+    }
+
+    @Transactional
+    public ApiKeyDTO create(ApiKeyRequest request) {
+        byte[] bytes = new byte[KEY_BYTES];
+        random.nextBytes(bytes);
+        String key = KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        ApiKey apiKey = apiKeyRepository.save(ApiKey.builder()
+                .keyHash(ApiKeyAuthenticator.hash(key))
+                .prefix(key.substring(0, 12))
+                .name(request.getName())
+                .scopes(EnumSet.copyOf(request.getScopes()))
+                .quotaPerMinute(request.getQuotaPerMinute())
+                .createdAt(Instant.now())
+                .build());
+        ApiKeyDTO dto = ApiKeyDTO.from(apiKey);
+        dto.setKey(key);
+        return dto;
+    }
+
+    @Transactional
+    public void revoke(Long id) {
+        ApiKey apiKey = apiKeyRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("API key no encontrada con ID: " + id));
+        apiKey.setRevoked(true);
+        // Once committed, so that a lookup racing the revocation cannot cache the key
+        // as still valid. Also drops a cached "unknown key" answer, which is harmless.
+        afterCommit(() -> apiKeyAuthenticator.evict(apiKey));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,30 +1,49 @@
 package com.mycompany.petstore.service;
 
-import com.mycompany.petstore.config.JwtService;
 import com.mycompany.petstore.dto.AuthRequest;
 import com.mycompany.petstore.dto.AuthResponse;
 import com.mycompany.petstore.dto.RegisterRequest;
+import com.mycompany.petstore.exception.InvalidRefreshTokenException;
 import com.mycompany.petstore.model.Role;
 import com.mycompany.petstore.model.User;
 import com.mycompany.petstore.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.mycompany.petstore.security.JwtService;
+import com.mycompany.petstore.security.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenDenylist tokenDenylist;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                       AuthenticationManager authenticationManager, RefreshTokenService refreshTokenService,
+                       TokenDenylist tokenDenylist, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenDenylist = tokenDenylist;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
+        // Hashed before the transaction, which would otherwise hold a connection while BCrypt runs
         var user = User.builder()
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
@@ -33,15 +52,12 @@ public class AuthService {
                 .password(passwordEncoder.encode(request.getPassword()))
                 .role(Role.USER)
                 .build();
-        
-        userRepository.save(user);
-        
-        var jwtToken = jwtService.generateToken(user);
-        
-        return AuthResponse.builder()
-                .accessToken(jwtToken)
-                .expiresIn(jwtService.getJwtExpiration() / 1000) // Convert to seconds
-                .build();
+
+        String refreshToken = transactionTemplate.execute(status -> {
+            userRepository.save(user);
+            return refreshTokenService.issue(user.getId());
+        });
+        return buildResponse(user, refreshToken);
     }
 
     public AuthResponse authenticate(AuthRequest request) {
@@ -55,10 +71,56 @@ public class AuthService {
         var user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
+        return buildResponse(user, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Trades a refresh token for a new access token and a new refresh token, without
+     * checking the password again.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        var rotation = refreshTokenService.rotate(refreshToken);
+        var user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("User not found"));
+        return buildResponse(user, rotation.refreshToken());
+    }
+
+    /**
+     * Revokes the caller's access token and, when given, the refresh token issued with it.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        revoke(accessToken);
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    /**
+     * Rejects {@code accessToken} from now until it expires. Expired tokens are
+     * already rejected and are ignored.
+     */
+    public void revoke(String accessToken) {
+        Claims claims;
+        try {
+            claims = jwtService.verify(accessToken);
+        } catch (ExpiredJwtException ex) {
+            return;
+        } catch (JwtException ex) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        if (claims.getId() == null) {
+            throw new IllegalArgumentException("Token has no id and cannot be revoked");
+        }
+        tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    private AuthResponse buildResponse(User user, String refreshToken) {
         var jwtToken = jwtService.generateToken(user);
         
         return AuthResponse.builder()
                 .accessToken(jwtToken)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
                 .expiresIn(jwtService.getJwtExpiration() / 1000) // Convert to seconds
                 .build();
     }
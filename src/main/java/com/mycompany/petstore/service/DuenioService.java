@@ -1,47 +1,286 @@
 package com.mycompany.petstore.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.petstore.config.CacheConfig;
+import com.mycompany.petstore.dto.CursorPage;
 import com.mycompany.petstore.model.Duenio;
 import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Kind;
+import com.mycompany.petstore.shard.ShardRouter;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 public class DuenioService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Comparator<Duenio> BY_ID = Comparator.comparing(Duenio::getId);
+
     private final DuenioRepository duenioRepository;
+    private final MascotaRepository mascotaRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate requiresNewTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final NameAutocompleteIndex nameIndex;
+    private final ShardRouter shards;
+
+    // Concurrent cache misses for the same owner share one query
+    private final SingleFlight<Long, Duenio> lookups = new SingleFlight<>();
+
+    // Normalised celular -> owner id, bounded. Owners are looked up by phone on every
+    // pet creation. Entries are evicted when an owner's phone changes or it is deleted,
+    // and checked against the owner before use in case that happened elsewhere.
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> idsByCelular;
+
+    public DuenioService(
+            DuenioRepository duenioRepository,
+            MascotaRepository mascotaRepository,
+            CacheManager cacheManager,
+            PlatformTransactionManager transactionManager,
+            NameAutocompleteIndex nameIndex,
+            ShardRouter shards,
+            @Value("${petstore.duenios.celular-cache-size:10000}") int celularCacheSize) {
+        this.duenioRepository = duenioRepository;
+        this.mascotaRepository = mascotaRepository;
+        this.cacheManager = cacheManager;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.nameIndex = nameIndex;
+        this.shards = shards;
+        this.idsByCelular = Caffeine.newBuilder().maximumSize(celularCacheSize).build();
+    }
 
     @Transactional(readOnly = true)
     public List<Duenio> findAll() {
-        return duenioRepository.findAll();
+        return shards.gather(shard -> duenioRepository.findAll(Sort.by("id")), BY_ID, Integer.MAX_VALUE);
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<Duenio> findPage(String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+        List<Duenio> rows = shards.gather(shard -> duenioRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, size + 1)), BY_ID, size + 1);
+        return CursorPage.of(rows, size, Duenio::getId);
+    }
+
+    // Not @Transactional, see MascotaService#findById
+    @Cacheable(cacheNames = CacheConfig.DUENIOS, key = "#id")
     public Duenio findById(Long id) {
-        return duenioRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Dueño no encontrado con ID: " + id));
+        Duenio duenio = lookups.load(id, () -> readOnlyTransaction.execute(status ->
+                shards.lookupOwner(id, shard -> duenioRepository.findById(id)).orElse(null)));
+        if (duenio == null) {
+            throw new EntityNotFoundException("Dueño no encontrado con ID: " + id);
+        }
+        return duenio;
+    }
+
+    @Transactional(readOnly = true)
+    public Duenio findByCelular(String celular) {
+        String normalized = normalizeCelular(celular);
+        Duenio cached = cachedOwner(normalized);
+        if (cached != null) {
+            return cached;
+        }
+        Duenio duenio = shards.findFirst(shard -> duenioRepository.findByCelular(normalized))
+                .orElseThrow(() -> new EntityNotFoundException("Dueño no encontrado con celular: " + celular));
+        cacheOwnerId(normalized, duenio.getId());
+        return duenio;
+    }
+
+    /**
+     * Shard of the owner registered with this (normalised) phone, or the landing shard
+     * where a new owner would be created.
+     */
+    public int shardOfCelular(String normalizedCelular) {
+        return shards.locate(shard -> duenioRepository.existsByCelular(normalizedCelular))
+                .orElse(ShardRouter.LANDING_SHARD);
+    }
+
+    /**
+     * Returns the owner registered with this phone, creating it if there is none.
+     * The result is a reference usable as a foreign key in the caller's transaction,
+     * which must be routed to {@link #shardOfCelular(String)} when sharded.
+     */
+    @Transactional
+    public Duenio findOrCreate(String nombre, String celular) {
+        String normalized = normalizeCelular(celular);
+        Duenio cached = cachedOwner(normalized);
+        if (cached != null) {
+            shards.checkWritable(cached.getId());
+            return cached;
+        }
+        Long id = resolveOwnerId(nombre, normalized);
+        cacheOwnerId(normalized, id);
+        shards.checkWritable(id);
+        return duenioRepository.getReferenceById(id);
+    }
+
+    // Existing owners by normalised celular, for callers resolving many pets at once
+    @Transactional(readOnly = true)
+    public Map<String, Duenio> findAllByCelular(Collection<String> normalizedCelulares) {
+        Map<String, Duenio> owners = new HashMap<>();
+        for (Duenio duenio : duenioRepository.findByCelularIn(normalizedCelulares)) {
+            owners.put(duenio.getCelular(), duenio);
+            cacheOwnerId(duenio.getCelular(), duenio.getId());
+        }
+        return owners;
+    }
+
+    // Shard of each phone already registered, for callers routing many pets at once
+    public Map<String, Integer> shardsByCelular(Collection<String> normalizedCelulares) {
+        Map<String, Integer> located = new HashMap<>();
+        shards.scatter(shard -> {
+            Map<String, Integer> found = new HashMap<>();
+            duenioRepository.findByCelularIn(normalizedCelulares).forEach(d -> found.put(d.getCelular(), shard));
+            return found;
+        }).forEach(found -> found.forEach(located::putIfAbsent));
+        return located;
     }
 
     @Transactional
     public Duenio save(Duenio duenio) {
-        return duenioRepository.save(duenio);
+        duenio.setCelular(normalizeCelular(duenio.getCelular()));
+        Duenio saved = duenioRepository.save(duenio);
+        nameIndex.putAfterCommit(Kind.DUENIO, saved.getId(), saved.getNombre());
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DUENIOS, key = "#id")
     @Transactional
     public Duenio update(Long id, Duenio duenioDetails) {
-        Duenio duenio = findById(id);
+        return shards.call(locate(id), () -> doUpdate(id, duenioDetails));
+    }
+
+    private Duenio doUpdate(Long id, Duenio duenioDetails) {
+        shards.checkWritable(id);
+        Duenio duenio = loadById(id);
+        idsByCelular.invalidate(duenio.getCelular());
+        evictMascotasOf(id);
         duenio.setNombre(duenioDetails.getNombre());
-        duenio.setCelular(duenioDetails.getCelular());
-        return duenioRepository.save(duenio);
+        duenio.setCelular(normalizeCelular(duenioDetails.getCelular()));
+        Duenio saved = duenioRepository.save(duenio);
+        nameIndex.putAfterCommit(Kind.DUENIO, saved.getId(), saved.getNombre());
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DUENIOS, key = "#id")
     @Transactional
     public void delete(Long id) {
-        Duenio duenio = findById(id);
+        shards.run(locate(id), () -> doDelete(id));
+    }
+
+    private void doDelete(Long id) {
+        shards.checkWritable(id);
+        Duenio duenio = loadById(id);
+        idsByCelular.invalidate(duenio.getCelular());
         duenioRepository.delete(duenio);
+        nameIndex.removeAfterCommit(Kind.DUENIO, id);
+    }
+
+    /**
+     * Canonical form used for storage and lookups: digits only, keeping a leading '+'.
+     * "+54 9 11 1234-5678" and "+549 11 12345678" both become "+5491112345678".
+     * A phone without digits is rejected, since all of them would become one owner.
+     */
+    public static String normalizeCelular(String celular) {
+        if (celular == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(celular.length());
+        for (int i = 0; i < celular.length(); i++) {
+            char c = celular.charAt(i);
+            if (Character.isDigit(c) || (c == '+' && normalized.isEmpty())) {
+                normalized.append(c);
+            }
+        }
+        if (normalized.isEmpty() || normalized.toString().equals("+")) {
+            throw new IllegalArgumentException("El celular debe contener al menos un dígito: " + celular);
+        }
+        return normalized.toString();
+    }
+
+    // Lookup and insert run in their own transaction so that losing a race on the
+    // unique celular index does not mark the caller's transaction rollback-only.
+    private Long resolveOwnerId(String nombre, String celular) {
+        try {
+            return requiresNewTransaction.execute(status -> duenioRepository.findByCelular(celular)
+                    .orElseGet(() -> {
+                        Duenio duenio = new Duenio();
+                        duenio.setNombre(nombre);
+                        duenio.setCelular(celular);
+                        Duenio saved = duenioRepository.saveAndFlush(duenio);
+                        nameIndex.putAfterCommit(Kind.DUENIO, saved.getId(), saved.getNombre());
+                        return saved;
+                    })
+                    .getId());
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent request created the same owner first: use theirs
+            return requiresNewTransaction.execute(status -> duenioRepository.findByCelular(celular))
+                    .map(Duenio::getId)
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    // Shard the owner lives on; the caller's shard if it is already routed
+    private int locate(Long id) {
+        return shards.locateOwner(id, shard -> duenioRepository.existsById(id));
+    }
+
+    // Managed entity from the current transaction; bypasses the cache and lookup coalescing
+    private Duenio loadById(Long id) {
+        return duenioRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Dueño no encontrado con ID: " + id));
+    }
+
+    // Cached pets embed the owner's name and phone. The cache is transaction-aware,
+    // so these evictions take effect when the surrounding transaction commits.
+    private void evictMascotasOf(Long duenioId) {
+        Cache mascotas = cacheManager.getCache(CacheConfig.MASCOTAS);
+        if (mascotas != null) {
+            mascotaRepository.findIdsByDuenioId(duenioId).forEach(mascotas::evict);
+        }
+    }
+
+    private void cacheOwnerId(String celular, Long id) {
+        idsByCelular.put(celular, id);
+    }
+
+    // The cached owner of this phone, if it still exists with that phone. Duenio is in
+    // the second-level cache, so the check rarely reaches the database.
+    private Duenio cachedOwner(String normalizedCelular) {
+        Long cachedId = idsByCelular.getIfPresent(normalizedCelular);
+        if (cachedId == null) {
+            return null;
+        }
+        Duenio duenio = shards.lookupOwner(cachedId, shard -> duenioRepository.findById(cachedId)).orElse(null);
+        if (duenio != null && normalizedCelular.equals(duenio.getCelular())) {
+            return duenio;
+        }
+        idsByCelular.asMap().remove(normalizedCelular, cachedId);
+        return null;
     }
 }
@@ -0,0 +1,194 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.BatchItemResult;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Kind;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk pet creation. Items are committed in chunks, each chunk in its own
+ * transaction, so one bad chunk does not roll back the ones before it and the
+ * persistence context never holds more than one chunk of entities. When sharded, a
+ * chunk is split by the shard of each pet's owner and committed once per shard. A
+ * chunk that fails is retried one item at a time, so only its bad items fail.
+ */
+@Slf4j
+@Service
+public class MascotaBatchService {
+
+    public static final int MAX_BATCH_ITEMS = 10_000;
+
+    private final MascotaRepository mascotaRepository;
+    private final DuenioService duenioService;
+    private final ObservacionesIndex observacionesIndex;
+    private final NameAutocompleteIndex nameIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public MascotaBatchService(
+            MascotaRepository mascotaRepository,
+            DuenioService duenioService,
+            ObservacionesIndex observacionesIndex,
+            NameAutocompleteIndex nameIndex,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shards,
+            Validator validator,
+            @Value("${petstore.batch.chunk-size:500}") int chunkSize) {
+        this.mascotaRepository = mascotaRepository;
+        this.duenioService = duenioService;
+        this.observacionesIndex = observacionesIndex;
+        this.nameIndex = nameIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public List<BatchItemResult> saveAll(List<MascotaDTO> mascotas) {
+        if (mascotas.size() > MAX_BATCH_ITEMS) {
+            throw new IllegalArgumentException(
+                    "El lote supera el máximo de " + MAX_BATCH_ITEMS + " mascotas");
+        }
+
+        BatchItemResult[] results = new BatchItemResult[mascotas.size()];
+        List<Integer> pendingIndexes = new ArrayList<>(chunkSize);
+        List<MascotaDTO> pending = new ArrayList<>(chunkSize);
+
+        for (int i = 0; i < mascotas.size(); i++) {
+            String error = validate(mascotas.get(i));
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, error);
+                continue;
+            }
+            pendingIndexes.add(i);
+            pending.add(mascotas.get(i));
+            if (pending.size() == chunkSize) {
+                commitChunk(pending, pendingIndexes, results);
+            }
+        }
+        if (!pending.isEmpty()) {
+            commitChunk(pending, pendingIndexes, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void commitChunk(List<MascotaDTO> chunk, List<Integer> indexes, BatchItemResult[] results) {
+        if (!shards.isSharded()) {
+            commitOnShard(ShardRouter.LANDING_SHARD, chunk, indexes, results);
+        } else {
+            // Pets of known owners go to the owner's shard; new owners start on the landing shard
+            List<String> celulares = chunk.stream()
+                    .map(dto -> DuenioService.normalizeCelular(dto.getCelularDuenio()))
+                    .toList();
+            Map<String, Integer> located = duenioService.shardsByCelular(new HashSet<>(celulares));
+            Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                int shard = located.getOrDefault(celulares.get(i), ShardRouter.LANDING_SHARD);
+                positionsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+            }
+            positionsByShard.forEach((shard, positions) -> commitOnShard(shard,
+                    positions.stream().map(chunk::get).toList(),
+                    positions.stream().map(indexes::get).toList(), results));
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    private void commitOnShard(int shard, List<MascotaDTO> chunk, List<Integer> indexes, BatchItemResult[] results) {
+        if (chunk.size() > 1 && tryCommit(shard, chunk, indexes, results)) {
+            return;
+        }
+        // One item at a time, so only the bad ones fail. An item whose new owner was
+        // inserted meanwhile by another request now finds that owner and is saved.
+        for (int i = 0; i < chunk.size(); i++) {
+            Integer index = indexes.get(i);
+            if (!tryCommit(shard, List.of(chunk.get(i)), List.of(index), results)) {
+                results[index] = BatchItemResult.failed(index, "No se pudo guardar la fila " + index);
+            }
+        }
+    }
+
+    // Entities are built per attempt: a rolled-back attempt leaves ids assigned on them
+    private boolean tryCommit(int shard, List<MascotaDTO> items, List<Integer> indexes, BatchItemResult[] results) {
+        List<Mascota> chunk = items.stream().map(MascotaService::toEntity).toList();
+        List<Duenio> newOwners = new ArrayList<>();
+        try {
+            List<Mascota> saved = shards.call(shard, () -> transactionTemplate.execute(status -> {
+                newOwners.addAll(attachOwners(chunk));
+                return mascotaRepository.saveAll(chunk);
+            }));
+            for (int i = 0; i < indexes.size(); i++) {
+                Mascota mascota = saved.get(i);
+                results[indexes.get(i)] = BatchItemResult.created(indexes.get(i), mascota.getId());
+                observacionesIndex.index(mascota.getId(), null, mascota.getObservaciones());
+                nameIndex.put(Kind.MASCOTA, mascota.getId(), mascota.getNombre());
+            }
+            newOwners.forEach(d -> nameIndex.put(Kind.DUENIO, d.getId(), d.getNombre()));
+            return true;
+        } catch (RuntimeException ex) {
+            // Driver and constraint messages stay in the log, not in the response
+            log.warn("Batch chunk of {} mascotas failed, rows {}", chunk.size(), indexes, ex);
+            return false;
+        }
+    }
+
+    // Points every pet at the owner already registered with its phone, resolved with
+    // one IN query per chunk. Pets sharing a new phone within the chunk share one new owner.
+    // Returns the owners that will be inserted along with the chunk.
+    private List<Duenio> attachOwners(List<Mascota> chunk) {
+        Set<String> celulares = new HashSet<>();
+        chunk.forEach(m -> celulares.add(m.getDuenio().getCelular()));
+        Map<String, Duenio> owners = new HashMap<>(duenioService.findAllByCelular(celulares));
+        owners.values().forEach(d -> shards.checkWritable(d.getId()));
+        List<Duenio> newOwners = new ArrayList<>();
+        for (Mascota mascota : chunk) {
+            Duenio nuevo = mascota.getDuenio();
+            Duenio duenio = owners.computeIfAbsent(nuevo.getCelular(), celular -> {
+                newOwners.add(nuevo);
+                return nuevo;
+            });
+            mascota.setDuenio(duenio);
+        }
+        return newOwners;
+    }
+
+    // The constraints POST /api/mascotas applies, which cover every column, checked
+    // before an item can poison a chunk
+    private String validate(MascotaDTO dto) {
+        if (dto == null) {
+            return "Mascota vacía";
+        }
+        Set<ConstraintViolation<MascotaDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
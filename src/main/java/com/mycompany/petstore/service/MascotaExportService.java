@@ -0,0 +1,134 @@
+package com.mycompany.petstore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MascotaExportService {
+
+    static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final String CSV_HEADER =
+            "id,nombre,raza,color,alergico,atencionEspecial,observaciones,nombreDuenio,celularDuenio";
+
+    private final MascotaReadRepository mascotaReads;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shards;
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + value);
+            }
+        }
+    }
+
+    /**
+     * Writes every pet to {@code out}, one row at a time straight from a JDBC
+     * cursor. Only the current row and the writer buffer are held in memory; when
+     * sharded, one keyset page per shard.
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // The per-row JSON generator must neither close nor flush the response stream
+        ObjectWriter rowWriter = objectMapper.writerFor(MascotaDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<MascotaDTO> rows = shards.streamAll(mascotaReads::streamAll, (shard, last) ->
+                mascotaReads.findPage(last == null ? 0L : last.getId(), ShardRouter.STREAM_PAGE_SIZE),
+                Comparator.comparing(MascotaDTO::getId))) {
+            Iterator<MascotaDTO> it = rows.iterator();
+            long written = 0;
+            while (it.hasNext()) {
+                MascotaDTO dto = it.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    rowWriter.writeValue(writer, dto);
+                    writer.write('\n');
+                }
+                if (++written % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, MascotaDTO dto) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writeCsvField(writer, dto.getNombre());
+        writeCsvField(writer, dto.getRaza());
+        writeCsvField(writer, dto.getColor());
+        writeCsvField(writer, dto.getAlergico());
+        writeCsvField(writer, dto.getAtencionEspecial());
+        writeCsvField(writer, dto.getObservaciones());
+        writeCsvField(writer, dto.getNombreDuenio());
+        writeCsvField(writer, dto.getCelularDuenio());
+        writer.write('\n');
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,66 +1,232 @@
 package com.mycompany.petstore.service;
 
+import com.mycompany.petstore.config.CacheConfig;
+import com.mycompany.petstore.dto.CursorPage;
 import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.dto.MascotaVersion;
+import com.mycompany.petstore.dto.VersionedMascota;
+import com.mycompany.petstore.exception.PreconditionFailedException;
 import com.mycompany.petstore.model.Mascota;
 import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.repository.MascotaReadRepository;
 import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.repository.MascotaSpecifications;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Kind;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 public class MascotaService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final Comparator<MascotaDTO> BY_ID = Comparator.comparing(MascotaDTO::getId);
+    private static final Comparator<Map<String, Object>> ROW_BY_ID = Comparator.comparing(row -> (Long) row.get("id"));
+
     private final MascotaRepository mascotaRepository;
+
+    // Listings and searches that return MascotaDTO skip JPA entirely
+    private final MascotaReadRepository mascotaReads;
     private final DuenioService duenioService;
+    private final ObservacionesIndex observacionesIndex;
+    private final NameAutocompleteIndex nameIndex;
+
+    // Pets live on their owner's shard; listings are merged across shards by id
+    private final ShardRouter shards;
+
+    // Concurrent cache misses for the same pet share one query
+    private final SingleFlight<Long, MascotaDTO> lookups = new SingleFlight<>();
+    private final TransactionTemplate readOnlyTransaction;
+
+    public MascotaService(
+            MascotaRepository mascotaRepository,
+            MascotaReadRepository mascotaReads,
+            DuenioService duenioService,
+            ObservacionesIndex observacionesIndex,
+            NameAutocompleteIndex nameIndex,
+            ShardRouter shards,
+            PlatformTransactionManager transactionManager) {
+        this.mascotaRepository = mascotaRepository;
+        this.mascotaReads = mascotaReads;
+        this.duenioService = duenioService;
+        this.observacionesIndex = observacionesIndex;
+        this.nameIndex = nameIndex;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Transactional(readOnly = true)
     public List<MascotaDTO> findAll() {
-        return mascotaRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return shards.gather(shard -> mascotaReads.findAll(), BY_ID, Integer.MAX_VALUE);
     }
 
     @Transactional(readOnly = true)
-    public MascotaDTO findById(Long id) {
-        Mascota mascota = mascotaRepository.findById(id)
+    public CursorPage<MascotaDTO> findPage(String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+        List<MascotaDTO> rows = shards.gather(
+                shard -> mascotaReads.findPage(afterId, size + 1), BY_ID, size + 1);
+        return CursorPage.of(rows, size, MascotaDTO::getId);
+    }
+
+    // Sparse variants: only the requested columns are selected, see MascotaField
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAll(Set<MascotaField> fields) {
+        return shards.gather(shard -> mascotaRepository.findFields(fields, null, 0), ROW_BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> findPage(String cursor, int limit, Set<MascotaField> fields) {
+        return search(new MascotaSearchCriteria(), cursor, limit, false, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> search(MascotaSearchCriteria criteria, String cursor, int limit,
+                                                  boolean includeTotal, Set<MascotaField> fields) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+        Specification<Mascota> filters = MascotaSpecifications.matching(criteria);
+
+        Specification<Mascota> page = afterId > 0
+                ? filters.and(MascotaSpecifications.idGreaterThan(afterId))
+                : filters;
+        CursorPage<Map<String, Object>> result = CursorPage.of(shards.gather(
+                shard -> mascotaRepository.findFields(fields, page, size + 1), ROW_BY_ID, size + 1),
+                size, row -> (Long) row.get("id"));
+
+        if (includeTotal) {
+            result.setTotal(shards.sum(shard -> mascotaRepository.count(filters)));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> findById(Long id, Set<MascotaField> fields) {
+        return shards.findFirst(shard -> mascotaRepository.findFields(
+                        fields, (root, query, cb) -> cb.equal(root.get("id"), id), 1).stream().findFirst())
+                .orElseThrow(() -> new EntityNotFoundException("Mascota no encontrada con ID: " + id));
+    }
+
+    // Filtered keyset page; the COUNT query only runs when the caller asks for the total
+    @Transactional(readOnly = true)
+    public CursorPage<MascotaDTO> search(MascotaSearchCriteria criteria, String cursor, int limit, boolean includeTotal) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+        CursorPage<MascotaDTO> result = CursorPage.of(
+                shards.gather(shard -> mascotaReads.search(criteria, afterId, size + 1), BY_ID, size + 1),
+                size, MascotaDTO::getId);
+
+        if (includeTotal) {
+            result.setTotal(shards.sum(shard -> mascotaReads.count(criteria)));
+        }
+        return result;
+    }
+
+    // Ranked full-text search over the notes, served by the in-memory index
+    @Transactional(readOnly = true)
+    public List<MascotaDTO> searchObservaciones(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("La búsqueda no puede estar vacía");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        List<ObservacionesIndex.Hit> hits = observacionesIndex.search(query, size);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            rank.put(hits.get(i).mascotaId(), i);
+        }
+        return shards.gather(shard -> mascotaReads.findAllByIdIn(rank.keySet()), BY_ID, Integer.MAX_VALUE)
+                .stream()
+                .sorted(Comparator.comparing(dto -> rank.get(dto.getId())))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public MascotaVersion findVersion(Long id) {
+        return shards.findFirst(shard -> mascotaRepository.findVersionById(id))
                 .orElseThrow(() -> new EntityNotFoundException("Mascota no encontrada con ID: " + id));
-        return convertToDTO(mascota);
+    }
+
+    // Not @Transactional: callers waiting on another thread's lookup must not hold a
+    // connection, so only the caller running the query opens a read-only transaction.
+    // A miss is thrown by each caller, not shared through the single flight.
+    @Cacheable(cacheNames = CacheConfig.MASCOTAS, key = "#id")
+    public MascotaDTO findById(Long id) {
+        MascotaDTO mascota = lookups.load(id, () -> readOnlyTransaction.execute(status ->
+                shards.findFirst(shard -> mascotaRepository.findDTOById(id)).orElse(null)));
+        if (mascota == null) {
+            throw new EntityNotFoundException("Mascota no encontrada con ID: " + id);
+        }
+        return mascota;
     }
 
     @Transactional
     public MascotaDTO save(MascotaDTO mascotaDTO) {
-        // Create or update the owner first
-        Duenio duenio = new Duenio();
-        duenio.setNombre(mascotaDTO.getNombreDuenio());
-        duenio.setCelular(mascotaDTO.getCelularDuenio());
-        duenio = duenioService.save(duenio);
+        // On the shard of the owner registered with this phone, or the landing shard for a new one
+        int shard = duenioService.shardOfCelular(DuenioService.normalizeCelular(mascotaDTO.getCelularDuenio()));
+        return shards.call(shard, () -> {
+            Mascota mascota = toEntity(mascotaDTO);
 
-        // Create and save the pet
-        Mascota mascota = new Mascota();
-        mascota.setNombre(mascotaDTO.getNombre());
-        mascota.setRaza(mascotaDTO.getRaza());
-        mascota.setColor(mascotaDTO.getColor());
-        mascota.setAlergico(mascotaDTO.getAlergico());
-        mascota.setAtencionEspecial(mascotaDTO.getAtencionEspecial());
-        mascota.setObservaciones(mascotaDTO.getObservaciones());
-        mascota.setDuenio(duenio);
+            // Reuse the owner registered with this phone, or create it first
+            mascota.setDuenio(duenioService.findOrCreate(
+                    mascotaDTO.getNombreDuenio(), mascotaDTO.getCelularDuenio()));
 
-        mascota = mascotaRepository.save(mascota);
-        return convertToDTO(mascota);
+            mascota = mascotaRepository.save(mascota);
+            observacionesIndex.indexAfterCommit(mascota.getId(), null, mascota.getObservaciones());
+            nameIndex.putAfterCommit(Kind.MASCOTA, mascota.getId(), mascota.getNombre());
+            return convertToDTO(mascota);
+        });
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MASCOTAS, key = "#id")
     @Transactional
     public MascotaDTO update(Long id, MascotaDTO mascotaDTO) {
+        return update(id, mascotaDTO, null).mascota();
+    }
+
+    /**
+     * Updates the pet only if {@code ifMatch} (an If-Match header value, or null to
+     * skip the check) still matches its current ETag. Writes that race past the check
+     * are caught by the @Version columns, which are flushed before returning so that
+     * the result carries the versions the update produced.
+     */
+    @CacheEvict(cacheNames = CacheConfig.MASCOTAS, key = "#id")
+    @Transactional
+    public VersionedMascota update(Long id, MascotaDTO mascotaDTO, String ifMatch) {
+        return shards.call(locate(id), () -> doUpdate(id, mascotaDTO, ifMatch));
+    }
+
+    private VersionedMascota doUpdate(Long id, MascotaDTO mascotaDTO, String ifMatch) {
         Mascota mascota = mascotaRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Mascota no encontrada con ID: " + id));
+        checkPrecondition(mascota, ifMatch);
+        shards.checkWritable(mascota.getDuenio().getId());
 
         // Update pet details
+        String previousObservaciones = mascota.getObservaciones();
         mascota.setNombre(mascotaDTO.getNombre());
         mascota.setRaza(mascotaDTO.getRaza());
         mascota.setColor(mascotaDTO.getColor());
@@ -68,23 +234,43 @@ public class MascotaService {
         mascota.setAtencionEspecial(mascotaDTO.getAtencionEspecial());
         mascota.setObservaciones(mascotaDTO.getObservaciones());
 
-        // Update owner details
-        Duenio duenio = mascota.getDuenio();
-        duenio.setNombre(mascotaDTO.getNombreDuenio());
-        duenio.setCelular(mascotaDTO.getCelularDuenio());
-        duenioService.update(duenio.getId(), duenio);
+        // Update owner details; the owner may be shared with other pets
+        Duenio duenioDetails = new Duenio();
+        duenioDetails.setNombre(mascotaDTO.getNombreDuenio());
+        duenioDetails.setCelular(mascotaDTO.getCelularDuenio());
+        duenioService.update(mascota.getDuenio().getId(), duenioDetails);
 
-        mascota = mascotaRepository.save(mascota);
-        return convertToDTO(mascota);
+        // Flushes the owner too, so both versions are the ones the update produced
+        mascota = mascotaRepository.saveAndFlush(mascota);
+        observacionesIndex.indexAfterCommit(mascota.getId(), previousObservaciones, mascota.getObservaciones());
+        nameIndex.putAfterCommit(Kind.MASCOTA, mascota.getId(), mascota.getNombre());
+        MascotaVersion version = new MascotaVersion(mascota.getId(), mascota.getVersion(),
+                mascota.getDuenio().getVersion());
+        return new VersionedMascota(convertToDTO(mascota), version);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MASCOTAS, key = "#id")
     @Transactional
     public void delete(Long id) {
+        delete(id, null);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.MASCOTAS, key = "#id")
+    @Transactional
+    public void delete(Long id, String ifMatch) {
+        shards.run(locate(id), () -> doDelete(id, ifMatch));
+    }
+
+    private void doDelete(Long id, String ifMatch) {
         Mascota mascota = mascotaRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Mascota no encontrada con ID: " + id));
+        checkPrecondition(mascota, ifMatch);
+        shards.checkWritable(mascota.getDuenio().getId());
         
         // Delete the pet first to maintain referential integrity
         mascotaRepository.delete(mascota);
+        observacionesIndex.removeAfterCommit(mascota.getId(), mascota.getObservaciones());
+        nameIndex.removeAfterCommit(Kind.MASCOTA, mascota.getId());
         
         // Then delete the owner if they don't have any other pets
         Duenio duenio = mascota.getDuenio();
@@ -93,6 +279,41 @@ public class MascotaService {
         }
     }
 
+    // Shard holding the pet; with a single shard nothing is probed
+    private int locate(Long id) {
+        return shards.locate(shard -> mascotaRepository.existsById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Mascota no encontrada con ID: " + id));
+    }
+
+    private static void checkPrecondition(Mascota mascota, String ifMatch) {
+        if (ifMatch == null) {
+            return;
+        }
+        Long duenioVersion = mascota.getDuenio() != null ? mascota.getDuenio().getVersion() : null;
+        MascotaVersion current = new MascotaVersion(mascota.getId(), mascota.getVersion(), duenioVersion);
+        if (!current.matches(ifMatch)) {
+            throw new PreconditionFailedException(
+                    "La mascota " + mascota.getId() + " fue modificada; la versión actual es " + current.toEtag());
+        }
+    }
+
+    // Builds a new pet together with a new (unsaved) owner from the DTO
+    static Mascota toEntity(MascotaDTO mascotaDTO) {
+        Duenio duenio = new Duenio();
+        duenio.setNombre(mascotaDTO.getNombreDuenio());
+        duenio.setCelular(DuenioService.normalizeCelular(mascotaDTO.getCelularDuenio()));
+
+        Mascota mascota = new Mascota();
+        mascota.setNombre(mascotaDTO.getNombre());
+        mascota.setRaza(mascotaDTO.getRaza());
+        mascota.setColor(mascotaDTO.getColor());
+        mascota.setAlergico(mascotaDTO.getAlergico());
+        mascota.setAtencionEspecial(mascotaDTO.getAtencionEspecial());
+        mascota.setObservaciones(mascotaDTO.getObservaciones());
+        mascota.setDuenio(duenio);
+        return mascota;
+    }
+
     private MascotaDTO convertToDTO(Mascota mascota) {
         MascotaDTO dto = new MascotaDTO();
         dto.setId(mascota.getId());
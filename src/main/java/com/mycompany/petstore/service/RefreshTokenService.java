@@ -0,0 +1,206 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.exception.InvalidRefreshTokenException;
+import com.mycompany.petstore.model.RefreshToken;
+import com.mycompany.petstore.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opaque, single-use refresh tokens. Tokens are random, stored as their SHA-256
+ * (a fast hash is enough for 256 bits of entropy) and rotated on every use.
+ * Unused tokens are also kept in memory so a refresh does not have to look them up;
+ * the conditional update in {@link RefreshTokenRepository#markUsed} stays the source
+ * of truth, so several instances can share the table.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    // SHA-256 of the token -> unused token. Misses fall back to the table.
+    private final Map<ByteBuffer, ActiveToken> active = new ConcurrentHashMap<>();
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    private record ActiveToken(Long id, Long userId, Long familyId, Instant expiresAt) {
+    }
+
+    @Autowired
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh-expiration:30d}") Duration ttl) {
+        this(refreshTokenRepository, ttl, Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, Duration ttl, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadActiveTokens() {
+        Instant now = clock.instant();
+        int purged = refreshTokenRepository.deleteExpired(now);
+        active.clear();
+        for (RefreshToken token : refreshTokenRepository.findByUsedFalseAndExpiresAtAfter(now)) {
+            active.put(ByteBuffer.wrap(token.getTokenHash()), toActive(token));
+        }
+        log.info("Loaded {} refresh tokens ({} expired purged)", active.size(), purged);
+    }
+
+    /**
+     * Drops expired tokens from the table and from memory. Tokens that are never
+     * refreshed, or never revoked on logout, would otherwise stay until the next restart.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-ms:3600000}",
+            initialDelayString = "${jwt.refresh-purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        int purged = refreshTokenRepository.deleteExpired(now);
+        active.values().removeIf(t -> !t.expiresAt().isAfter(now));
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    /**
+     * Starts a new token family for a user who just proved their password.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, null);
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. Presenting a token
+     * that was already exchanged revokes the whole family, since either the client or
+     * an attacker holds a copy.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired or reused
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        ByteBuffer key = ByteBuffer.wrap(hash(refreshToken));
+        ActiveToken current = active.remove(key);
+        if (current == null) {
+            RefreshToken stored = refreshTokenRepository.findByTokenHash(key.array())
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+            if (stored.isUsed()) {
+                throw revokeFamily(stored.getFamilyId());
+            }
+            current = toActive(stored);
+        }
+        if (!current.expiresAt().isAfter(clock.instant())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (refreshTokenRepository.markUsed(current.id()) == 0) {
+            throw revokeFamily(current.familyId());
+        }
+        return new Rotation(current.userId(), issue(current.userId(), current.familyId()));
+    }
+
+    /**
+     * Revokes the family of {@code refreshToken}, e.g. on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        ByteBuffer key = ByteBuffer.wrap(hash(refreshToken));
+        ActiveToken current = active.get(key);
+        Long familyId = current != null ? current.familyId()
+                : refreshTokenRepository.findByTokenHash(key.array()).map(RefreshToken::getFamilyId).orElse(null);
+        if (familyId != null) {
+            refreshTokenRepository.deleteByFamilyId(familyId);
+            active.values().removeIf(t -> t.familyId().equals(familyId));
+        }
+    }
+
+    int activeCount() {
+        return active.size();
+    }
+
+    private String issue(Long userId, Long familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken entity = RefreshToken.builder()
+                .tokenHash(hash(token))
+                .userId(userId)
+                .familyId(familyId != null ? familyId : newFamilyId())
+                .expiresAt(clock.instant().plus(ttl))
+                .build();
+        RefreshToken saved = refreshTokenRepository.save(entity);
+        // Only index tokens that made it to the table
+        afterCommit(() -> active.put(ByteBuffer.wrap(saved.getTokenHash()), toActive(saved)));
+        return token;
+    }
+
+    // Unguessable, so a family cannot be targeted by id
+    private static long newFamilyId() {
+        return UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE;
+    }
+
+    private InvalidRefreshTokenException revokeFamily(Long familyId) {
+        log.warn("Refresh token reuse detected; revoking token family {}", familyId);
+        refreshTokenRepository.deleteByFamilyId(familyId);
+        active.values().removeIf(t -> t.familyId().equals(familyId));
+        return new InvalidRefreshTokenException("Refresh token already used");
+    }
+
+    private static ActiveToken toActive(RefreshToken token) {
+        return new ActiveToken(token.getId(), token.getUserId(), token.getFamilyId(), token.getExpiresAt());
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
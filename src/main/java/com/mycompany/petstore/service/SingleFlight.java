@@ -0,0 +1,54 @@
+package com.mycompany.petstore.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader
+ * and everyone arriving while it is in flight waits for that result instead of
+ * issuing the same query. Nothing is remembered once the load finishes; caching
+ * is left to the layer above.
+ * <p>
+ * A failed load is not shared as one instance: each waiter gets its own
+ * {@link CompletionException} with the leader's failure as the cause. Expected
+ * outcomes such as "not found" are better returned by the loader and thrown by
+ * each caller.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(key, existing);
+        }
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    // join() hands every waiter the same CompletionException, so a new one is made per caller
+    private static <V> V await(Object key, CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw new CompletionException("Concurrent load of " + key + " failed", ex.getCause());
+        }
+    }
+}
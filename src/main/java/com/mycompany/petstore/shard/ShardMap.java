@@ -0,0 +1,146 @@
+package com.mycompany.petstore.shard;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring from owner ids to shards. Every shard places
+ * {@code virtualNodes} points on the ring and an owner belongs to the first point at
+ * or after the hash of its id; the owners between two neighbouring points form one
+ * segment. Reassigning a segment moves only its owners, which is the unit
+ * {@link ShardRebalancer} moves online. Instances are immutable.
+ */
+public final class ShardMap {
+
+    private final long[] tokens;
+    private final int[] shards;
+
+    private ShardMap(long[] tokens, int[] shards) {
+        this.tokens = tokens;
+        this.shards = shards;
+    }
+
+    public static ShardMap uniform(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node");
+        }
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (long token : points(shard, virtualNodes)) {
+                ring.put(token, shard);
+            }
+        }
+        return of(ring);
+    }
+
+    public static ShardMap of(TreeMap<Long, Integer> ring) {
+        if (ring.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one point");
+        }
+        long[] tokens = new long[ring.size()];
+        int[] shards = new int[ring.size()];
+        int i = 0;
+        for (var point : ring.entrySet()) {
+            tokens[i] = point.getKey();
+            shards[i++] = point.getValue();
+        }
+        return new ShardMap(tokens, shards);
+    }
+
+    /**
+     * The ring positions a shard owns by design. Stable across restarts and
+     * independent of the other shards, so adding a shard never moves existing points.
+     */
+    public static long[] points(int shard, int virtualNodes) {
+        long[] points = new long[virtualNodes];
+        for (int node = 0; node < virtualNodes; node++) {
+            points[node] = mix(((long) shard << 32 | node) ^ 0x5DEECE66DL);
+        }
+        return points;
+    }
+
+    public int shardFor(long ownerId) {
+        return shards[segmentOf(ownerId)];
+    }
+
+    public int segmentOf(long ownerId) {
+        int index = Arrays.binarySearch(tokens, mix(ownerId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Past the last point the ring wraps around to the first
+        return index == tokens.length ? 0 : index;
+    }
+
+    public int segmentCount() {
+        return tokens.length;
+    }
+
+    public long token(int segment) {
+        return tokens[segment];
+    }
+
+    public int shardOf(int segment) {
+        return shards[segment];
+    }
+
+    public Set<Integer> shards() {
+        Set<Integer> result = new HashSet<>();
+        for (int shard : shards) {
+            result.add(shard);
+        }
+        return result;
+    }
+
+    public ShardMap withSegment(int segment, int shard) {
+        int[] reassigned = shards.clone();
+        reassigned[segment] = shard;
+        return new ShardMap(tokens, reassigned);
+    }
+
+    /**
+     * Adds a shard's points, each still served by the shard that owned that position,
+     * so routing is unchanged until the new segments are moved.
+     */
+    public ShardMap withPoints(int shard, int virtualNodes) {
+        TreeMap<Long, Integer> ring = toTreeMap();
+        for (long token : points(shard, virtualNodes)) {
+            if (!ring.containsKey(token)) {
+                Long owner = ring.ceilingKey(token);
+                ring.put(token, ring.get(owner != null ? owner : ring.firstKey()));
+            }
+        }
+        return of(ring);
+    }
+
+    public TreeMap<Long, Integer> toTreeMap() {
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int i = 0; i < tokens.length; i++) {
+            ring.put(tokens[i], shards[i]);
+        }
+        return ring;
+    }
+
+    // Murmur3's 64-bit finaliser: sequential ids spread evenly over the ring
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ShardMap map
+                && Arrays.equals(tokens, map.tokens) && Arrays.equals(shards, map.shards);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(tokens) + Arrays.hashCode(shards);
+    }
+}
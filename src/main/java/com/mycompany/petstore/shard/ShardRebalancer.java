@@ -0,0 +1,379 @@
+package com.mycompany.petstore.shard;
+
+import com.mycompany.petstore.exception.ServiceBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongPredicate;
+
+/**
+ * Moves owners, with their pets, between shards while the application keeps serving.
+ * A move marks its segment as moving in the ring table, waits for every instance to
+ * pick that up and for in-flight writes to finish, copies the rows, switches the
+ * segment to the target and only then deletes the source rows. Reads keep working
+ * throughout; writes to owners of the segment get a 503 until the move ends.
+ * <p>
+ * Works on the shards' own data sources with plain JDBC, bypassing routing and the
+ * persistence context. Moves keep the rows' ids and versions. Every instance may run
+ * them: a row lock on the landing shard lets one instance move owners at a time.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private static final String DUENIO_COLUMNS = "id, version, nombre, celular";
+    private static final String MASCOTA_COLUMNS =
+            "num_cliente, version, nombre, raza, color, alergico, atencion_especial, observaciones, duenio_id";
+
+    private final ShardRouter router;
+    private final DataSource landingDataSource;
+    private final List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+    private final int virtualNodes;
+    private final Duration freezeGrace;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardRouter router, List<? extends DataSource> shards, int virtualNodes,
+                           Duration freezeGrace, int batchSize) {
+        this.router = router;
+        this.landingDataSource = shards.get(ShardRouter.LANDING_SHARD);
+        for (DataSource shard : shards) {
+            this.shards.add(new NamedParameterJdbcTemplate(shard));
+            this.transactions.add(new TransactionTemplate(new DataSourceTransactionManager(shard)));
+        }
+        this.virtualNodes = virtualNodes;
+        this.freezeGrace = freezeGrace;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * The ring stored on the landing shard, or a uniform ring over every configured
+     * shard the first time. Shards configured later take no owners until
+     * {@link #addShard(int)} is run for them. The table comes from the migrations.
+     */
+    public static ShardMap loadMap(DataSource landing, int shardCount, int virtualNodes) {
+        JdbcTemplate jdbc = new JdbcTemplate(landing);
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        jdbc.query("SELECT token, shard FROM shard_ring", rs -> {
+            ring.put(rs.getLong(1), rs.getInt(2));
+        });
+        if (!ring.isEmpty()) {
+            return ShardMap.of(ring);
+        }
+        ShardMap map = ShardMap.uniform(shardCount, virtualNodes);
+        new TransactionTemplate(new DataSourceTransactionManager(landing))
+                .executeWithoutResult(status -> insertRing(jdbc, map, Set.of()));
+        return map;
+    }
+
+    /** Picks up ring changes and moves made by other instances. */
+    public void refresh() {
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        Set<Long> moving = new HashSet<>();
+        landing().getJdbcTemplate().query("SELECT token, shard, moving FROM shard_ring", rs -> {
+            ring.put(rs.getLong(1), rs.getInt(2));
+            if (rs.getBoolean(3)) {
+                moving.add(rs.getLong(1));
+            }
+        });
+        ShardMap map = ShardMap.of(ring);
+        Set<Integer> frozen = new HashSet<>();
+        for (int segment = 0; segment < map.segmentCount(); segment++) {
+            if (moving.contains(map.token(segment))) {
+                frozen.add(segment);
+            }
+        }
+        router.install(map, frozen);
+    }
+
+    /**
+     * Moves every owner of {@code segment} to {@code target}; returns how many moved.
+     * Refused with {@link ServiceBusyException} while another instance is moving owners.
+     */
+    public synchronized int moveSegment(int segment, int target) {
+        return exclusively(false, () -> doMoveSegment(segment, target));
+    }
+
+    private int doMoveSegment(int segment, int target) {
+        ShardMap map = router.map();
+        checkShard(target);
+        if (segment < 0 || segment >= map.segmentCount()) {
+            throw new IllegalArgumentException("Segmento inexistente: " + segment);
+        }
+        int source = map.shardOf(segment);
+        if (source == target) {
+            return 0;
+        }
+        freeze(map, Set.of(segment));
+        try {
+            List<Long> owners = copy(source, target, ownersOn(source, id -> map.segmentOf(id) == segment));
+            ShardMap next = map.withSegment(segment, target);
+            saveRing(next, Set.of(segment));
+            router.install(next, router.frozenSegments());
+            delete(source, owners);
+            log.info("Moved segment {} ({} owners) from shard {} to shard {}", segment, owners.size(), source, target);
+            return owners.size();
+        } finally {
+            unfreeze(Set.of(segment));
+        }
+    }
+
+    /**
+     * Brings a newly configured shard into the ring: its points are added first, still
+     * served by their current shards, and then each of their segments is moved to it.
+     * Refused with {@link ServiceBusyException} while another instance is moving owners.
+     */
+    public synchronized int addShard(int shard) {
+        checkShard(shard);
+        return exclusively(false, () -> doAddShard(shard));
+    }
+
+    private int doAddShard(int shard) {
+        ShardMap grown = router.map().withPoints(shard, virtualNodes);
+        saveRing(grown, Set.of());
+        router.install(grown, router.frozenSegments());
+
+        Set<Long> points = new HashSet<>();
+        for (long point : ShardMap.points(shard, virtualNodes)) {
+            points.add(point);
+        }
+        int moved = 0;
+        for (int segment = 0; segment < grown.segmentCount(); segment++) {
+            if (points.contains(grown.token(segment))) {
+                moved += doMoveSegment(segment, shard);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Moves owners created on the landing shard to their ring shard. Every segment with
+     * owners to move is frozen at once, so writes wait out a single grace period. Does
+     * nothing while another instance is moving owners.
+     */
+    public synchronized int settle() {
+        return exclusively(true, this::doSettle);
+    }
+
+    private int doSettle() {
+        ShardMap map = router.map();
+        Map<Integer, List<Long>> bySegment = new TreeMap<>();
+        for (Long id : ownersOn(ShardRouter.LANDING_SHARD, id -> map.shardFor(id) != ShardRouter.LANDING_SHARD)) {
+            bySegment.computeIfAbsent(map.segmentOf(id), segment -> new ArrayList<>()).add(id);
+        }
+        if (bySegment.isEmpty()) {
+            return 0;
+        }
+        int moved = 0;
+        freeze(map, bySegment.keySet());
+        try {
+            for (var entry : bySegment.entrySet()) {
+                List<Long> owners = copy(ShardRouter.LANDING_SHARD, map.shardOf(entry.getKey()), entry.getValue());
+                delete(ShardRouter.LANDING_SHARD, owners);
+                moved += owners.size();
+            }
+        } finally {
+            unfreeze(bySegment.keySet());
+        }
+        if (moved > 0) {
+            log.info("Settled {} owners from the landing shard", moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Starts each shard's pet and owner sequences in a band of its own, so rows created
+     * on different shards never share an id. Only applies to table-backed sequences
+     * (MySQL); elsewhere the sequences must be started at {@code shard << bandBits} by hand.
+     */
+    public void reserveIdBands(int bandBits) {
+        for (int shard = 1; shard < shards.size(); shard++) {
+            long start = (long) shard << bandBits;
+            for (String sequence : new String[]{"mascotas_seq", "duenios_seq"}) {
+                try {
+                    shards.get(shard).getJdbcTemplate().update(
+                            "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", start, start);
+                } catch (DataAccessException ex) {
+                    log.warn("Could not move {} on shard {} to {}: {}", sequence, shard, start, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    // Locks the landing shard's rebalancer row on a connection of its own, so that the
+    // moves' statements, which other instances must see as they go, stay outside it
+    private int exclusively(boolean skipWhenBusy, IntSupplier operation) {
+        try (Connection connection = landingDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 ResultSet lock = statement.executeQuery(
+                         "SELECT name FROM shard_lock WHERE name = 'rebalancer' FOR UPDATE SKIP LOCKED")) {
+                if (lock.next()) {
+                    return operation.getAsInt();
+                }
+                if (skipWhenBusy) {
+                    log.debug("Another instance is moving owners, skipping");
+                    return 0;
+                }
+                throw new ServiceBusyException("Otra instancia está moviendo dueños entre shards",
+                        Math.max(1, freezeGrace.toSeconds()));
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not lock the shard rebalancer", ex);
+        }
+    }
+
+    // Marks the segments as moving, then waits until no instance can still be writing to them
+    private void freeze(ShardMap map, Set<Integer> segments) {
+        landing().update("UPDATE shard_ring SET moving = TRUE WHERE token IN (:tokens)",
+                Map.of("tokens", tokens(map, segments)));
+        Set<Integer> frozen = new HashSet<>(router.frozenSegments());
+        frozen.addAll(segments);
+        router.install(router.map(), frozen);
+        try {
+            Thread.sleep(freezeGrace.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            unfreeze(segments);
+            throw new IllegalStateException("Interrupted while freezing segments " + segments, ex);
+        }
+    }
+
+    private void unfreeze(Set<Integer> segments) {
+        ShardMap map = router.map();
+        landing().update("UPDATE shard_ring SET moving = FALSE WHERE token IN (:tokens)",
+                Map.of("tokens", tokens(map, segments)));
+        Set<Integer> frozen = new HashSet<>(router.frozenSegments());
+        frozen.removeAll(segments);
+        router.install(map, frozen);
+    }
+
+    private static List<Long> tokens(ShardMap map, Set<Integer> segments) {
+        List<Long> tokens = new ArrayList<>(segments.size());
+        segments.forEach(segment -> tokens.add(map.token(segment)));
+        return tokens;
+    }
+
+    // Keyset scan over the shard's owners, keeping the ids the filter accepts
+    private List<Long> ownersOn(int shard, LongPredicate filter) {
+        List<Long> owners = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<Long> page = shards.get(shard).queryForList(
+                    "SELECT id FROM duenios WHERE id > :afterId ORDER BY id LIMIT " + batchSize,
+                    Map.of("afterId", afterId), Long.class);
+            for (Long id : page) {
+                if (filter.test(id)) {
+                    owners.add(id);
+                }
+            }
+            if (page.size() < batchSize) {
+                return owners;
+            }
+            afterId = page.get(page.size() - 1);
+        }
+    }
+
+    // Copies the owners the source still has and returns their ids. Only those ids are
+    // replaced on the target, which also clears what an earlier failed attempt left there
+    private List<Long> copy(int source, int target, List<Long> owners) {
+        List<Long> copied = new ArrayList<>(owners.size());
+        for (List<Long> batch : batches(owners)) {
+            List<Object[]> duenios = shards.get(source).query(
+                    "SELECT " + DUENIO_COLUMNS + " FROM duenios WHERE id IN (:ids)", Map.of("ids", batch),
+                    ShardRebalancer::row);
+            if (duenios.isEmpty()) {
+                continue;
+            }
+            List<Long> found = new ArrayList<>(duenios.size());
+            duenios.forEach(duenio -> found.add(((Number) duenio[0]).longValue()));
+            Map<String, Object> ids = Map.of("ids", found);
+            List<Object[]> mascotas = shards.get(source).query(
+                    "SELECT " + MASCOTA_COLUMNS + " FROM mascotas WHERE duenio_id IN (:ids)", ids, ShardRebalancer::row);
+            NamedParameterJdbcTemplate jdbc = shards.get(target);
+            transactions.get(target).executeWithoutResult(status -> {
+                jdbc.update("DELETE FROM mascotas WHERE duenio_id IN (:ids)", ids);
+                jdbc.update("DELETE FROM duenios WHERE id IN (:ids)", ids);
+                jdbc.getJdbcTemplate().batchUpdate(
+                        "INSERT INTO duenios (" + DUENIO_COLUMNS + ") VALUES (?, ?, ?, ?)", duenios);
+                jdbc.getJdbcTemplate().batchUpdate(
+                        "INSERT INTO mascotas (" + MASCOTA_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", mascotas);
+            });
+            copied.addAll(found);
+        }
+        return copied;
+    }
+
+    private void delete(int shard, List<Long> owners) {
+        NamedParameterJdbcTemplate jdbc = shards.get(shard);
+        for (List<Long> batch : batches(owners)) {
+            Map<String, Object> ids = Map.of("ids", batch);
+            transactions.get(shard).executeWithoutResult(status -> {
+                jdbc.update("DELETE FROM mascotas WHERE duenio_id IN (:ids)", ids);
+                jdbc.update("DELETE FROM duenios WHERE id IN (:ids)", ids);
+            });
+        }
+    }
+
+    private void saveRing(ShardMap map, Set<Integer> moving) {
+        Set<Long> movingTokens = new HashSet<>();
+        moving.forEach(segment -> movingTokens.add(map.token(segment)));
+        transactions.get(ShardRouter.LANDING_SHARD).executeWithoutResult(status -> {
+            landing().getJdbcTemplate().update("DELETE FROM shard_ring");
+            insertRing(landing().getJdbcTemplate(), map, movingTokens);
+        });
+    }
+
+    private static void insertRing(JdbcTemplate jdbc, ShardMap map, Set<Long> movingTokens) {
+        List<Object[]> rows = new ArrayList<>(map.segmentCount());
+        for (int segment = 0; segment < map.segmentCount(); segment++) {
+            long token = map.token(segment);
+            rows.add(new Object[]{token, map.shardOf(segment), movingTokens.contains(token)});
+        }
+        jdbc.batchUpdate("INSERT INTO shard_ring (token, shard, moving) VALUES (?, ?, ?)", rows);
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalArgumentException("Shard inexistente: " + shard);
+        }
+    }
+
+    private NamedParameterJdbcTemplate landing() {
+        return shards.get(ShardRouter.LANDING_SHARD);
+    }
+
+    private List<List<Long>> batches(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            batches.add(ids.subList(from, Math.min(ids.size(), from + batchSize)));
+        }
+        return batches;
+    }
+
+    private static Object[] row(ResultSet rs, int rowNum) throws SQLException {
+        Object[] row = new Object[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,375 @@
+package com.mycompany.petstore.shard;
+
+import com.mycompany.petstore.exception.ServiceBusyException;
+import com.mycompany.petstore.monitoring.QueryStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decides which shard repository calls go to. Owners (and their pets) live on the
+ * shard the {@link ShardMap} assigns to the owner id; new owners are created on the
+ * landing shard and moved to their ring shard by {@link ShardRebalancer#settle()}, so
+ * owner lookups try the ring shard first and then the landing shard.
+ * <p>
+ * Calls are routed by binding a shard to the current thread for
+ * {@link ShardRoutingDataSource}. A transaction takes its connection at the first
+ * statement, so it stays on whichever shard was bound then. Anything that must not
+ * join the caller's transaction (probes and cross-shard queries) runs on the scatter
+ * pool, one task per shard. With a single shard, or on a thread that is already
+ * routed, every method runs the query inline against that one shard.
+ */
+public class ShardRouter implements AutoCloseable {
+
+    // Also holds users, tokens, API keys and the ring itself
+    public static final int LANDING_SHARD = 0;
+
+    // Rows per keyset page when streaming every shard
+    public static final int STREAM_PAGE_SIZE = 1000;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService scatterPool;
+    private volatile ShardMap map;
+
+    // Segments being moved; writes to their owners are refused until the move ends
+    private volatile Set<Integer> frozenSegments = Set.of();
+
+    public ShardRouter(ShardMap map, int shardCount, int scatterThreads) {
+        this.map = map;
+        this.shardCount = shardCount;
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterPool = shardCount == 1 ? null : Executors.newFixedThreadPool(Math.max(1, scatterThreads), task -> {
+            Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ShardRouter single() {
+        return new ShardRouter(ShardMap.uniform(1, 1), 1, 0);
+    }
+
+    /** Shard bound to the current thread, or null to use the landing shard. */
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public ShardMap map() {
+        return map;
+    }
+
+    void install(ShardMap map, Set<Integer> frozenSegments) {
+        this.map = map;
+        this.frozenSegments = Set.copyOf(frozenSegments);
+    }
+
+    Set<Integer> frozenSegments() {
+        return frozenSegments;
+    }
+
+    public int shardFor(long ownerId) {
+        return map.shardFor(ownerId);
+    }
+
+    /**
+     * Runs {@code body} with repository calls routed to {@code shard}. A thread that is
+     * already routed keeps its shard: nested service calls share the outer transaction.
+     */
+    public <T> T call(int shard, Supplier<T> body) {
+        Integer current = CURRENT.get();
+        if (!isSharded() || current != null) {
+            if (current != null && current != shard) {
+                throw new IllegalStateException("Thread is routed to shard " + current + ", not " + shard);
+            }
+            return body.get();
+        }
+        CURRENT.set(shard);
+        try {
+            return body.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    public void run(int shard, Runnable body) {
+        call(shard, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /** Runs {@code body} once per shard, one after another, on the calling thread. */
+    public void forEachShard(IntConsumer body) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            run(target, () -> body.accept(target));
+        }
+    }
+
+    /**
+     * The shard owner {@code ownerId} lives on: the routed shard if the thread already
+     * has one, otherwise its ring shard unless {@code existsOn} says it has not been
+     * settled there yet.
+     */
+    public int locateOwner(long ownerId, IntPredicate existsOn) {
+        Integer current = CURRENT.get();
+        if (!isSharded() || current != null) {
+            return current != null ? current : LANDING_SHARD;
+        }
+        int ring = shardFor(ownerId);
+        if (ring == LANDING_SHARD || onShard(ring, () -> existsOn.test(ring))) {
+            return ring;
+        }
+        return LANDING_SHARD;
+    }
+
+    // Owner-keyed lookup: ring shard first, then the landing shard
+    public <T> Optional<T> lookupOwner(long ownerId, IntFunction<Optional<T>> query) {
+        Integer current = CURRENT.get();
+        if (!isSharded() || current != null) {
+            return query.apply(current != null ? current : LANDING_SHARD);
+        }
+        int ring = shardFor(ownerId);
+        Optional<T> found = onShard(ring, () -> query.apply(ring));
+        if (found.isEmpty() && ring != LANDING_SHARD) {
+            found = onShard(LANDING_SHARD, () -> query.apply(LANDING_SHARD));
+        }
+        return found;
+    }
+
+    /**
+     * First shard, in shard order, for which {@code probe} holds; every shard is probed
+     * concurrently. With a single shard nothing is probed.
+     */
+    public OptionalInt locate(IntPredicate probe) {
+        Integer current = CURRENT.get();
+        if (!isSharded() || current != null) {
+            return OptionalInt.of(current != null ? current : LANDING_SHARD);
+        }
+        List<Boolean> found = scatter(probe::test);
+        for (int shard = 0; shard < found.size(); shard++) {
+            if (found.get(shard)) {
+                return OptionalInt.of(shard);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public <T> Optional<T> findFirst(IntFunction<Optional<T>> query) {
+        return scatter(query).stream().flatMap(Optional::stream).findFirst();
+    }
+
+    /**
+     * Runs {@code query} on every shard and k-way merges the results, each already
+     * sorted by {@code order}, keeping the first {@code limit} rows.
+     */
+    public <T> List<T> gather(IntFunction<List<T>> query, Comparator<? super T> order, int limit) {
+        List<List<T>> results = scatter(query);
+        return results.size() == 1 ? results.get(0) : merge(results, order, limit);
+    }
+
+    public long sum(IntToLongFunction query) {
+        return scatter(query::applyAsLong).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /** Runs {@code query} on every shard concurrently; the results are in shard order. */
+    public <R> List<R> scatter(IntFunction<R> query) {
+        Integer current = CURRENT.get();
+        if (!isSharded() || current != null) {
+            return List.of(query.apply(current != null ? current : LANDING_SHARD));
+        }
+        List<Future<R>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(scatterPool.submit(QueryStats.propagate(() -> call(target, () -> query.apply(target)))));
+        }
+        List<R> results = new ArrayList<>(shardCount);
+        for (Future<R> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Every row in {@code order}. A single shard is read through {@code cursor}, which
+     * must be consumed inside a transaction; otherwise each shard is a keyset-ordered
+     * stream of pages from {@code pages}, merged so that only one page per shard is
+     * held at a time.
+     */
+    public <T> Stream<T> streamAll(Supplier<Stream<T>> cursor, KeysetQuery<T> pages, Comparator<? super T> order) {
+        if (!isSharded()) {
+            return cursor.get();
+        }
+        List<PageCursor<T>> cursors = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            cursors.add(new PageCursor<>(this, shard, pages));
+        }
+        Iterator<T> merged = new MergingIterator<>(cursors, order);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+
+    public void checkWritable(long ownerId) {
+        Set<Integer> frozen = frozenSegments;
+        if (!frozen.isEmpty() && frozen.contains(map.segmentOf(ownerId))) {
+            throw new ServiceBusyException("El dueño " + ownerId + " se está moviendo de shard", 1);
+        }
+    }
+
+    /**
+     * Merges lists already sorted by {@code order}. A row that compares equal to the
+     * previous one is dropped: while an owner is being moved its rows exist on both shards.
+     */
+    static <T> List<T> merge(List<? extends List<T>> sorted, Comparator<? super T> order, int limit) {
+        List<PageCursor<T>> cursors = new ArrayList<>(sorted.size());
+        for (List<T> rows : sorted) {
+            cursors.add(new PageCursor<>(rows));
+        }
+        MergingIterator<T> merged = new MergingIterator<>(cursors, order);
+        List<T> result = new ArrayList<>();
+        while (result.size() < limit && merged.hasNext()) {
+            result.add(merged.next());
+        }
+        return result;
+    }
+
+    // Runs on the scatter pool so that it never joins the caller's transaction; its
+    // statements still count towards the caller's request
+    <T> T onShard(int shard, Supplier<T> body) {
+        return await(scatterPool.submit(QueryStats.propagate(() -> call(shard, body))));
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shard", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface KeysetQuery<T> {
+        /** The page of rows on {@code shard} that follows {@code last} (null for the first page). */
+        List<T> next(int shard, T last);
+    }
+
+    // One shard's rows, refilled a page at a time when a query is given
+    private static final class PageCursor<T> {
+        private final ShardRouter router;
+        private final int shard;
+        private final KeysetQuery<T> query;
+        private List<T> page;
+        private int position;
+        private T head;
+
+        PageCursor(List<T> rows) {
+            this(null, 0, null);
+            this.page = rows;
+        }
+
+        PageCursor(ShardRouter router, int shard, KeysetQuery<T> query) {
+            this.router = router;
+            this.shard = shard;
+            this.query = query;
+        }
+
+        boolean advance() {
+            if (page == null || (position == page.size() && query != null && !page.isEmpty())) {
+                T last = head;
+                page = router.onShard(shard, () -> query.next(shard, last));
+                position = 0;
+            }
+            if (position == page.size()) {
+                head = null;
+                return false;
+            }
+            head = page.get(position++);
+            return true;
+        }
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+        private final PriorityQueue<PageCursor<T>> heap;
+        private final Comparator<? super T> order;
+        private T last;
+        private T next;
+
+        MergingIterator(List<PageCursor<T>> cursors, Comparator<? super T> order) {
+            this.order = order;
+            this.heap = new PriorityQueue<>(Math.max(1, cursors.size()), (a, b) -> order.compare(a.head, b.head));
+            for (PageCursor<T> cursor : cursors) {
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !heap.isEmpty()) {
+                PageCursor<T> cursor = heap.poll();
+                T candidate = cursor.head;
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+                if (last == null || order.compare(last, candidate) != 0) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Purging expired refresh tokens (expires_at < ?) and loading the live ones at
+-- startup (used = false AND expires_at > ?), which filters on used in the index.
+-- MySQL builds a secondary index in place without blocking writes, so this can be
+-- applied while the application serves. Already covered: duenios.celular
+-- (uk_duenios_celular), mascotas.duenio_id (V3), users.username and users.email,
+-- token and key hashes (unique constraints).
+CREATE INDEX idx_refresh_tokens_expires_at_used ON refresh_tokens (expires_at, used);
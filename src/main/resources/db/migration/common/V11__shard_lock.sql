@@ -0,0 +1,9 @@
+-- Row that ShardRebalancer locks for the length of a move or a settle, so that only
+-- one instance moves owners at a time. Created on every shard like shard_ring but only
+-- used on the landing one.
+CREATE TABLE shard_lock (
+    name VARCHAR(50) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO shard_lock (name) VALUES ('rebalancer');
@@ -0,0 +1,33 @@
+-- Owners are shared between pets and matched by phone number. Every pet used to
+-- create its own owner, so owners with the same phone are merged into the oldest.
+
+-- The one-to-one unique key goes first, since merging gives several pets the same
+-- owner. The foreign key is dropped with it because it was backed by that key's
+-- index, and is added back once the merge is done.
+ALTER TABLE mascotas DROP CONSTRAINT FK1w2tslgbalhjtyorqro2u556b;
+ALTER TABLE mascotas DROP CONSTRAINT UK_rrryiaj66wmjgs25gvok8t9k8;
+
+-- Pets of an owner: countByDuenioId, findIdsByDuenioId, orphan checks and shard moves
+CREATE INDEX idx_mascotas_duenio_id ON mascotas (duenio_id);
+
+-- Phones are matched as DuenioService.normalizeCelular stores them: digits only, with
+-- a leading '+' kept. Older rows hold them as typed, so they are normalised first.
+-- Phones without a digit are left as they are instead of all becoming one owner.
+UPDATE duenios
+SET celular = CONCAT(CASE WHEN REGEXP_LIKE(celular, '^[^0-9]*[+]') THEN '+' ELSE '' END,
+                     REGEXP_REPLACE(celular, '[^0-9]', ''))
+WHERE REGEXP_LIKE(celular, '[0-9]');
+
+UPDATE mascotas
+SET duenio_id = (SELECT MIN(d2.id)
+                 FROM duenios d1 JOIN duenios d2 ON d2.celular = d1.celular
+                 WHERE d1.id = mascotas.duenio_id)
+WHERE duenio_id IS NOT NULL;
+
+-- The derived table is materialised, which MySQL needs to delete from the table it reads
+DELETE FROM duenios
+WHERE id NOT IN (SELECT kept.id FROM (SELECT MIN(id) AS id FROM duenios GROUP BY celular) kept);
+
+ALTER TABLE duenios ADD CONSTRAINT uk_duenios_celular UNIQUE (celular);
+
+ALTER TABLE mascotas ADD CONSTRAINT FK1w2tslgbalhjtyorqro2u556b FOREIGN KEY (duenio_id) REFERENCES duenios (id);
@@ -0,0 +1,3 @@
+-- @Version columns behind the ETags; existing rows start at version 0
+ALTER TABLE duenios ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE mascotas ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- Owner-keyed shard ring, read from the landing shard (see ShardRebalancer). Created
+-- on every shard by the migrations but only used on the landing one. May already
+-- exist where sharding ran before migrations did.
+CREATE TABLE IF NOT EXISTS shard_ring (
+    token BIGINT NOT NULL,
+    shard INT NOT NULL,
+    moving BOOLEAN NOT NULL,
+    PRIMARY KEY (token)
+);
@@ -0,0 +1,35 @@
+-- H2 counterpart of mysql/V1, for the embedded test database
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    role VARCHAR(255) CHECK (role IN ('USER', 'ADMIN')),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+);
+
+CREATE TABLE duenios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    celular VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE mascotas (
+    num_cliente BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre VARCHAR(255) NOT NULL,
+    raza VARCHAR(255) NOT NULL,
+    color VARCHAR(255) NOT NULL,
+    alergico VARCHAR(255) NOT NULL,
+    atencion_especial VARCHAR(255),
+    observaciones TEXT,
+    duenio_id BIGINT,
+    PRIMARY KEY (num_cliente),
+    CONSTRAINT UK_rrryiaj66wmjgs25gvok8t9k8 UNIQUE (duenio_id),
+    CONSTRAINT FK1w2tslgbalhjtyorqro2u556b FOREIGN KEY (duenio_id) REFERENCES duenios (id)
+);
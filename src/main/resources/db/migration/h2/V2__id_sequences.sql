@@ -0,0 +1,3 @@
+-- The embedded test database always starts empty
+CREATE SEQUENCE duenios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE mascotas_seq START WITH 1 INCREMENT BY 50;
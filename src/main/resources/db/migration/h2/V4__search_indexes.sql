@@ -0,0 +1,13 @@
+-- See mysql/V4
+
+ALTER TABLE mascotas ALTER COLUMN raza SET DATA TYPE VARCHAR(100);
+ALTER TABLE mascotas ALTER COLUMN color SET DATA TYPE VARCHAR(100);
+ALTER TABLE mascotas ALTER COLUMN alergico SET DATA TYPE VARCHAR(10);
+ALTER TABLE mascotas ALTER COLUMN atencion_especial SET DATA TYPE VARCHAR(10);
+
+CREATE INDEX idx_mascotas_raza_color_alergico_atencion ON mascotas (raza, color, alergico, atencion_especial);
+CREATE INDEX idx_mascotas_atencion_raza_color ON mascotas (atencion_especial, raza, color);
+CREATE INDEX idx_mascotas_color_alergico_atencion ON mascotas (color, alergico, atencion_especial);
+CREATE INDEX idx_mascotas_color_atencion ON mascotas (color, atencion_especial);
+CREATE INDEX idx_mascotas_alergico_raza_atencion ON mascotas (alergico, raza, atencion_especial);
+CREATE INDEX idx_mascotas_alergico_atencion ON mascotas (alergico, atencion_especial);
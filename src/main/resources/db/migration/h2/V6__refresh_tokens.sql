@@ -0,0 +1,12 @@
+CREATE TABLE refresh_tokens (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token_hash BINARY(32) NOT NULL,
+    user_id BIGINT NOT NULL,
+    family_id BIGINT NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    used BOOLEAN NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
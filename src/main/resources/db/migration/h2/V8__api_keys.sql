@@ -0,0 +1,12 @@
+CREATE TABLE api_keys (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    key_hash BINARY(32) NOT NULL,
+    prefix VARCHAR(12) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    scopes VARCHAR(50) NOT NULL,
+    quota_per_minute INTEGER NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked BOOLEAN NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_api_keys_hash UNIQUE (key_hash)
+);
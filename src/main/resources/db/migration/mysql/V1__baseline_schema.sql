@@ -0,0 +1,38 @@
+-- Schema as Hibernate generated it before migrations were introduced, constraint
+-- names included. Databases created that way are baselined at this version and
+-- receive every later migration.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    role ENUM ('USER', 'ADMIN'),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE duenios (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    celular VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- One owner per pet: duenio_id was a one-to-one join column
+CREATE TABLE mascotas (
+    num_cliente BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(255) NOT NULL,
+    raza VARCHAR(255) NOT NULL,
+    color VARCHAR(255) NOT NULL,
+    alergico VARCHAR(255) NOT NULL,
+    atencion_especial VARCHAR(255),
+    observaciones TEXT,
+    duenio_id BIGINT,
+    PRIMARY KEY (num_cliente),
+    CONSTRAINT UK_rrryiaj66wmjgs25gvok8t9k8 UNIQUE (duenio_id),
+    CONSTRAINT FK1w2tslgbalhjtyorqro2u556b FOREIGN KEY (duenio_id) REFERENCES duenios (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,16 @@
+-- Pooled id sequences, which MySQL emulates with one-row tables, so that Hibernate
+-- hands out ids in memory and batches INSERTs. Each starts one block (50 ids) past
+-- the highest existing id: Hibernate reads the stored value as the top of its
+-- first block.
+
+CREATE TABLE duenios_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO duenios_seq SELECT COALESCE(MAX(id), 0) + 50 FROM duenios;
+
+CREATE TABLE mascotas_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO mascotas_seq SELECT COALESCE(MAX(num_cliente), 0) + 50 FROM mascotas;
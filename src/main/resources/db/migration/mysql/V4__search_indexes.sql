@@ -0,0 +1,16 @@
+-- Composite indexes for the filtered pet search, see Mascota. The columns shrink
+-- first to keep the keys under InnoDB's 3072-byte limit; a longer value makes the
+-- migration fail rather than be truncated.
+
+ALTER TABLE mascotas
+    MODIFY raza VARCHAR(100) NOT NULL,
+    MODIFY color VARCHAR(100) NOT NULL,
+    MODIFY alergico VARCHAR(10) NOT NULL,
+    MODIFY atencion_especial VARCHAR(10);
+
+CREATE INDEX idx_mascotas_raza_color_alergico_atencion ON mascotas (raza, color, alergico, atencion_especial);
+CREATE INDEX idx_mascotas_atencion_raza_color ON mascotas (atencion_especial, raza, color);
+CREATE INDEX idx_mascotas_color_alergico_atencion ON mascotas (color, alergico, atencion_especial);
+CREATE INDEX idx_mascotas_color_atencion ON mascotas (color, atencion_especial);
+CREATE INDEX idx_mascotas_alergico_raza_atencion ON mascotas (alergico, raza, atencion_especial);
+CREATE INDEX idx_mascotas_alergico_atencion ON mascotas (alergico, atencion_especial);
@@ -0,0 +1,12 @@
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash BINARY(32) NOT NULL,
+    user_id BIGINT NOT NULL,
+    family_id BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
@@ -0,0 +1,7 @@
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (jti)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,12 @@
+CREATE TABLE api_keys (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    key_hash BINARY(32) NOT NULL,
+    prefix VARCHAR(12) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    scopes VARCHAR(50) NOT NULL,
+    quota_per_minute INTEGER NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    revoked BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_api_keys_hash UNIQUE (key_hash)
+) ENGINE = InnoDB;
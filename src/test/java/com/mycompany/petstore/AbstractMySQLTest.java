@@ -0,0 +1,29 @@
+package com.mycompany.petstore;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * Shares one MySQL container across every test class that extends it. The
+ * container is started once per JVM and reaped by Testcontainers on exit. The
+ * schema comes from the Flyway migrations, as in production.
+ */
+public abstract class AbstractMySQLTest {
+
+    // Same driver flags as production: real multi-row batches and cursor fetches
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true")
+            .withUrlParam("useCursorFetch", "true");
+
+    static {
+        MYSQL.start();
+    }
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+}
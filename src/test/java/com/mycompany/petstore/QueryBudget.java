@@ -0,0 +1,45 @@
+package com.mycompany.petstore;
+
+import com.mycompany.petstore.monitoring.QueryCountingFilter;
+import com.mycompany.petstore.monitoring.QueryStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query budgets for tests. Controller tests check the {@value QueryCountingFilter#HEADER}
+ * header, which {@link BaseIntegrationTest} turns on; other tests wrap the code under
+ * test directly.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    /** Fails the request if it ran more than {@code statements} SQL statements. */
+    public static ResultMatcher atMost(long statements) {
+        return result -> {
+            String count = result.getResponse().getHeader(QueryCountingFilter.HEADER);
+            assertThat(count)
+                    .as("%s header; is petstore.sql.query-count-header on?", QueryCountingFilter.HEADER)
+                    .isNotNull();
+            assertThat(Long.parseLong(count))
+                    .as("SQL statements run by %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(statements);
+        };
+    }
+
+    /** Runs {@code body} and fails if it ran more than {@code statements} SQL statements. */
+    public static QueryStats assertAtMost(long statements, Runnable body) {
+        QueryStats stats = QueryStats.capture(body);
+        assertThat(stats.statements()).as("SQL statements (%s)", stats).isLessThanOrEqualTo(statements);
+        return stats;
+    }
+
+    /** Runs {@code body} and fails if any statement ran {@code times} times or more. */
+    public static QueryStats assertNoRepeats(int times, Runnable body) {
+        QueryStats stats = QueryStats.capture(body);
+        assertThat(stats.repeated(times)).as("statements run %d times or more", times).isEmpty();
+        return stats;
+    }
+}
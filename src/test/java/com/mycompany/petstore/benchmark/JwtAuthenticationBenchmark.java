@@ -0,0 +1,87 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.model.Role;
+import com.mycompany.petstore.model.User;
+import com.mycompany.petstore.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token: the old path (key rebuilt and
+ * token parsed three times), a single verification, and a repeat of an already
+ * verified token. Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(0) // surefire runs tests from a manifest-only jar that a forked JVM cannot see
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private User user;
+    private String token;
+    private JwtService uncached;
+    private JwtService cached;
+
+    @Setup
+    public void setUp() {
+        user = User.builder().id(1L).username("testuser").password("x").role(Role.USER).build();
+        uncached = new JwtService(SECRET_KEY, 3_600_000L, 0);
+        cached = new JwtService(SECRET_KEY, 3_600_000L, 10_000);
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean parseThreeTimes() {
+        String username = parse(token).getSubject();
+        return username.equals(user.getUsername())
+                && parse(token).getSubject().equals(user.getUsername())
+                && parse(token).getExpiration().after(new Date());
+    }
+
+    @Benchmark
+    public boolean verifyOnce() {
+        return uncached.isTokenValid(uncached.verify(token), user);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return cached.isTokenValid(cached.verify(token), user);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+
+    // What every extract* call used to do before the key and parser were shared
+    private static Claims parse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.security.LoginRateLimiter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of the login rate limit check with 10,000 users across 1,000 client IPs.
+ * Run with {@code mvn test -Pbenchmark}; results are
+ * printed to stdout.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(0) // surefire runs tests from a manifest-only jar that a forked JVM cannot see
+public class LoginRateLimiterBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int IPS = 1_000;
+    private static final long BUDGET_NANOS = 1_000;
+
+    private LoginRateLimiter limiter;
+    private String[] usernames;
+    private String[] ips;
+
+    @Setup
+    public void setUp() {
+        // Limits high enough that nothing is rejected; rejections would measure exceptions
+        limiter = new LoginRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofMinutes(1), 100_000);
+        usernames = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "user" + i;
+        }
+        ips = new String[IPS];
+        for (int i = 0; i < IPS; i++) {
+            ips[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public void acquireLogin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        limiter.acquireLogin(usernames[random.nextInt(USERS)], ips[random.nextInt(IPS)]);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+
+    @Test
+    void acquireLogin_ShouldCostUnderOneMicrosecond() {
+        setUp();
+        int calls = 2_000_000;
+        for (int i = 0; i < calls; i++) {
+            limiter.acquireLogin(usernames[i % USERS], ips[i % IPS]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            limiter.acquireLogin(usernames[i % USERS], ips[i % IPS]);
+        }
+        long nanosPerCall = (System.nanoTime() - start) / calls;
+
+        System.out.printf("login rate limiter: %d ns per check (budget %d)%n", nanosPerCall, BUDGET_NANOS);
+        assertThat(nanosPerCall).isLessThan(BUDGET_NANOS);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.config.JpaConfig;
+import com.mycompany.petstore.config.ShardingConfig;
+import com.mycompany.petstore.dto.BatchItemResult;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.service.DuenioService;
+import com.mycompany.petstore.service.MascotaBatchService;
+import com.mycompany.petstore.service.MascotaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows/second of POST /api/mascotas/batch versus the one-pet-per-call path.
+ * Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, ShardingConfig.class, MascotaService.class, DuenioService.class, MascotaBatchService.class,
+        MascotaReadRepository.class, ObservacionesIndex.class, NameAutocompleteIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MascotaBatchInsertBenchmark extends AbstractMySQLTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private MascotaBatchService mascotaBatchService;
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Test
+    void batchInsert_ShouldOutperformOneAtATime() {
+        List<MascotaDTO> warmup = mascotas(500, 1);
+        warmup.forEach(mascotaService::save);
+        mascotaBatchService.saveAll(warmup);
+
+        List<MascotaDTO> single = mascotas(ROWS, 2);
+        long singleStart = System.nanoTime();
+        single.forEach(mascotaService::save);
+        double singleRate = rowsPerSecond(ROWS, System.nanoTime() - singleStart);
+
+        List<MascotaDTO> batch = mascotas(ROWS, 3);
+        long batchStart = System.nanoTime();
+        List<BatchItemResult> results = mascotaBatchService.saveAll(batch);
+        double batchRate = rowsPerSecond(ROWS, System.nanoTime() - batchStart);
+
+        System.out.printf("one-at-a-time: %,.0f rows/s%n", singleRate);
+        System.out.printf("batch:         %,.0f rows/s (%.1fx)%n", batchRate, batchRate / singleRate);
+
+        assertThat(results).allMatch(r -> r.getStatus() == BatchItemResult.Status.CREATED);
+        assertThat(mascotaRepository.count()).isEqualTo(2L * ROWS + 1000);
+        assertThat(batchRate).isGreaterThan(singleRate);
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+
+    // Every pet gets its own owner (distinct celular) so both paths insert two rows per pet
+    private static List<MascotaDTO> mascotas(int count, int run) {
+        List<MascotaDTO> mascotas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String celular = String.format("%d%08d", run, i);
+            mascotas.add(new MascotaDTO(null, "Mascota " + celular, "Labrador", "Negro", "NO", "NO",
+                    "Sin observaciones", "Duenio " + celular, celular));
+        }
+        return mascotas;
+    }
+}
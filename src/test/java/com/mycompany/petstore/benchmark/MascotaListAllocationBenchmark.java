@@ -0,0 +1,134 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.config.JpaConfig;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap allocated and time per row for full listings and export cursors on MySQL,
+ * through the JPA entity query (and a JPQL DTO cursor) and
+ * {@link MascotaReadRepository}, each in its own read-only transaction as the
+ * services run them. Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, MascotaReadRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MascotaListAllocationBenchmark extends AbstractMySQLTest {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private MascotaReadRepository mascotaReads;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void listAndExport_ShouldAllocateLessPerRowOnJdbcPath() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> seed());
+        tx.setReadOnly(true);
+
+        long entities = measure("JPA entities", tx, () -> entityManager
+                .createQuery("SELECT m FROM Mascota m LEFT JOIN FETCH m.duenio ORDER BY m.id", Mascota.class)
+                .getResultList().stream()
+                .map(MascotaListAllocationBenchmark::toDTO)
+                .toList());
+        long jdbc = measure("JDBC", tx, mascotaReads::findAll);
+        long jpaCursor = measure("JPA cursor", tx, () -> drain(mascotaRepository.streamAllDTO()));
+        long jdbcCursor = measure("JDBC cursor", tx, () -> drain(mascotaReads.streamAll()));
+
+        assertThat(jdbc).isLessThan(entities);
+        assertThat(jdbcCursor).isLessThan(jpaCursor);
+    }
+
+    // Bytes this thread allocates per row, after a warm-up; each run gets a fresh
+    // transaction and persistence context
+    private long measure(String label, TransactionTemplate tx, Supplier<List<MascotaDTO>> read) {
+        for (int i = 0; i < WARMUP; i++) {
+            List<MascotaDTO> rows = tx.execute(status -> read.get());
+            assertThat(rows).hasSize(ROWS);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            tx.execute(status -> read.get());
+        }
+        long nanos = System.nanoTime() - start;
+        long bytesPerRow = (threads.getCurrentThreadAllocatedBytes() - bytes) / ((long) ITERATIONS * ROWS);
+
+        System.out.printf("%-15s %5d bytes/row, %6.0f ns/row%n", label, bytesPerRow,
+                (double) nanos / ((long) ITERATIONS * ROWS));
+        return bytesPerRow;
+    }
+
+    // Counts the rows without keeping them, as the export does
+    private static List<MascotaDTO> drain(Stream<MascotaDTO> rows) {
+        try (rows) {
+            List<MascotaDTO> seen = new ArrayList<>(ROWS);
+            rows.forEach(row -> seen.add(null));
+            return seen;
+        }
+    }
+
+    private void seed() {
+        List<Mascota> mascotas = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Duenio duenio = new Duenio();
+            duenio.setNombre("Duenio " + i);
+            duenio.setCelular(String.valueOf(5_000_000 + i));
+
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota " + i);
+            mascota.setRaza(i % 2 == 0 ? "Caniche" : "Labrador");
+            mascota.setColor("Negro");
+            mascota.setAlergico(i % 3 == 0 ? "SI" : "NO");
+            mascota.setObservaciones("Revisar vacunas de la mascota " + i);
+            mascota.setDuenio(duenio);
+            mascotas.add(mascota);
+        }
+        mascotaRepository.saveAll(mascotas);
+    }
+
+    private static MascotaDTO toDTO(Mascota mascota) {
+        Duenio duenio = mascota.getDuenio();
+        return new MascotaDTO(mascota.getId(), mascota.getNombre(), mascota.getRaza(), mascota.getColor(),
+                mascota.getAlergico(), mascota.getAtencionEspecial(), mascota.getObservaciones(),
+                duenio != null ? duenio.getNombre() : null, duenio != null ? duenio.getCelular() : null);
+    }
+}
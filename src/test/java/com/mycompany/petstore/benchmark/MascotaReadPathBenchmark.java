@@ -0,0 +1,175 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time (JMH) and heap allocated per row when listing pets through a Hibernate entity
+ * query, the JPQL DTO projection and {@link MascotaReadRepository}, against in-memory
+ * H2 so that only the mapping differs. JMH reports allocation per row as
+ * {@code gc.alloc.rate.norm}. Run with {@code mvn test -Pbenchmark}; results are
+ * printed to stdout.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(0) // surefire runs tests from a manifest-only jar that a forked JVM cannot see
+public class MascotaReadPathBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private static final String ENTITIES = "SELECT m FROM Mascota m LEFT JOIN FETCH m.duenio ORDER BY m.id";
+    private static final String PROJECTION = "SELECT new com.mycompany.petstore.dto.MascotaDTO(" +
+            "m.id, m.nombre, m.raza, m.color, m.alergico, m.atencionEspecial, m.observaciones, " +
+            "d.nombre, d.celular) FROM Mascota m LEFT JOIN m.duenio d ORDER BY m.id";
+
+    private SessionFactory sessionFactory;
+    private MascotaReadRepository mascotaReads;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:read-path;DB_CLOSE_DELAY=-1");
+        // The native bootstrap takes a connection provider rather than the JPA data source setting
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.CONNECTION_PROVIDER, connections)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(Mascota.class, Duenio.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        mascotaReads = new MascotaReadRepository(dataSource, ROWS);
+        seed(new JdbcTemplate(dataSource));
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MascotaDTO> jpaEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(ENTITIES, Mascota.class).getResultList().stream()
+                    .map(MascotaReadPathBenchmark::toDTO)
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MascotaDTO> jpaProjection() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(PROJECTION, MascotaDTO.class).getResultList();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MascotaDTO> jdbc() {
+        return mascotaReads.findAll();
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Test
+    void allocationPerRow_ShouldBeLowestOnJdbcPath() {
+        setUp();
+        try {
+            long entities = bytesPerRow(this::jpaEntities);
+            long projection = bytesPerRow(this::jpaProjection);
+            long jdbc = bytesPerRow(this::jdbc);
+
+            System.out.printf("JPA entities:   %d bytes/row%n", entities);
+            System.out.printf("JPA projection: %d bytes/row%n", projection);
+            System.out.printf("JDBC:           %d bytes/row%n", jdbc);
+            assertThat(jdbc).isLessThan(projection).isLessThan(entities);
+        } finally {
+            tearDown();
+        }
+    }
+
+    // Bytes this thread allocates per row, after a warm-up so that one-off
+    // class loading and query plan compilation do not count
+    private static long bytesPerRow(Supplier<List<MascotaDTO>> read) {
+        for (int i = 0; i < 50; i++) {
+            assertThat(read.get()).hasSize(ROWS);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 100;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            read.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ((long) iterations * ROWS);
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        List<Object[]> duenios = new ArrayList<>();
+        List<Object[]> mascotas = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            duenios.add(new Object[]{id, "Duenio " + id, String.valueOf(1_100_000_000L + id)});
+            mascotas.add(new Object[]{id, "Mascota " + id, id % 2 == 0 ? "Caniche" : "Labrador", "Negro",
+                    id % 3 == 0 ? "SI" : "NO", "Revisar vacunas de la mascota " + id, id});
+        }
+        jdbc.batchUpdate("INSERT INTO duenios (id, version, nombre, celular) VALUES (?, 0, ?, ?)", duenios);
+        jdbc.batchUpdate("INSERT INTO mascotas (num_cliente, version, nombre, raza, color, alergico, "
+                + "observaciones, duenio_id) VALUES (?, 0, ?, ?, ?, ?, ?, ?)", mascotas);
+    }
+
+    private static MascotaDTO toDTO(Mascota mascota) {
+        Duenio duenio = mascota.getDuenio();
+        return new MascotaDTO(mascota.getId(), mascota.getNombre(), mascota.getRaza(), mascota.getColor(),
+                mascota.getAlergico(), mascota.getAtencionEspecial(), mascota.getObservaciones(),
+                duenio != null ? duenio.getNombre() : null, duenio != null ? duenio.getCelular() : null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Kind;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Suggestion;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Autocomplete latency (JMH) and heap cost per entry of {@link NameAutocompleteIndex}.
+ * Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(0) // surefire runs tests from a manifest-only jar that a forked JVM cannot see
+public class NameAutocompleteBenchmark {
+
+    // Heap budget per indexed name, including its share of the interned strings
+    private static final int BYTES_PER_NAME_BUDGET = 64;
+
+    private static final String[] NOMBRES = {"Max", "Luna", "Rocky", "Toby", "Lola", "Bruno", "Nina", "Simba",
+            "Coco", "Kira", "Thor", "Mora", "Milo", "Frida", "Zeus", "Mía"};
+    private static final String[] APELLIDOS = {"Pérez", "González", "Rodríguez", "Fernández", "López",
+            "Martínez", "Gómez", "Díaz", "Sánchez", "Romero"};
+
+    @Param({"1000000"})
+    public int names;
+
+    private NameAutocompleteIndex index;
+
+    @Setup
+    public void setUp() {
+        index = build(names);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestOneLetter() {
+        return index.suggest("m", 10);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestSurname() {
+        return index.suggest("gonz", 10);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+
+    @Test
+    void memoryPerName_ShouldStayWithinBudget() {
+        int count = 1_000_000;
+        long before = usedHeap();
+        NameAutocompleteIndex built = build(count);
+        long bytesPerName = (usedHeap() - before) / count;
+
+        System.out.printf("autocomplete: %d bytes per name (budget %d)%n", bytesPerName, BYTES_PER_NAME_BUDGET);
+        assertThat(built.size()).isGreaterThanOrEqualTo(count);
+        assertThat(bytesPerName).isLessThanOrEqualTo(BYTES_PER_NAME_BUDGET);
+    }
+
+    // Half pets, half owners with first name and surname; names repeat as in real data
+    private static NameAutocompleteIndex build(int count) {
+        Random random = new Random(42);
+        List<Suggestion> names = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+            if (id % 2 == 0) {
+                names.add(new Suggestion(Kind.DUENIO, id, nombre + " " + APELLIDOS[random.nextInt(APELLIDOS.length)]));
+            } else {
+                names.add(new Suggestion(Kind.MASCOTA, id, nombre + " " + (id % 1000)));
+            }
+        }
+        NameAutocompleteIndex index = new NameAutocompleteIndex(null, null, null, null);
+        index.replaceAll(names);
+        return index;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
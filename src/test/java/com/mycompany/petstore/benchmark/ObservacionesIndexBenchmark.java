@@ -0,0 +1,74 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.search.ObservacionesIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query latency of the observaciones index over one million synthetic notes, for
+ * rare terms, for common ones whose postings cover about half the pets, and for a
+ * common term together with a rare one.
+ * Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+class ObservacionesIndexBenchmark {
+
+    private static final int MASCOTAS = 1_000_000;
+    private static final int QUERIES = 2_000;
+
+    private static final String[] COMMON = {"perro", "tranquilo", "corte", "baño", "pelo", "largo", "corto", "uñas"};
+    private static final String[] RARE = {"muerde", "otitis", "sedación", "dermatitis", "cardiópata", "epiléptico"};
+
+    @Test
+    void search_ShouldStaySubMillisecond() {
+        ObservacionesIndex index = buildIndex();
+
+        double[] rare = measure(index, i -> RARE[i % RARE.length] + " " + RARE[(i + 1) % RARE.length]);
+        double[] common = measure(index, i -> COMMON[i % COMMON.length] + " " + COMMON[(i + 1) % COMMON.length]);
+        double[] mixed = measure(index, i -> COMMON[i % COMMON.length] + " " + RARE[i % RARE.length]);
+
+        System.out.printf("observaciones search over %,d mascotas: rare p50 %.3f ms, p99 %.3f ms; "
+                        + "common p50 %.3f ms, p99 %.3f ms; mixed p50 %.3f ms, p99 %.3f ms%n",
+                MASCOTAS, rare[0], rare[1], common[0], common[1], mixed[0], mixed[1]);
+        assertThat(rare[0]).isLessThan(1.0);
+        assertThat(common[0]).isLessThan(1.0);
+        assertThat(mixed[0]).isLessThan(1.0);
+    }
+
+    private static ObservacionesIndex buildIndex() {
+        Random random = new Random(42);
+        ObservacionesIndex index = new ObservacionesIndex(null, null, null);
+        for (long id = 1; id <= MASCOTAS; id++) {
+            StringBuilder note = new StringBuilder();
+            for (int w = 0; w < 6; w++) {
+                note.append(COMMON[random.nextInt(COMMON.length)]).append(' ');
+            }
+            if (random.nextInt(100) == 0) {
+                note.append(RARE[random.nextInt(RARE.length)]);
+            }
+            index.index(id, null, note.toString());
+        }
+        return index;
+    }
+
+    // p50 and p99 in milliseconds, after a warm-up round
+    private static double[] measure(ObservacionesIndex index, IntFunction<String> query) {
+        for (int i = 0; i < QUERIES; i++) {
+            index.search(query.apply(i), 20);
+        }
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            index.search(query.apply(i), 20);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new double[]{nanos[QUERIES / 2] / 1_000_000.0, nanos[QUERIES * 99 / 100] / 1_000_000.0};
+    }
+}
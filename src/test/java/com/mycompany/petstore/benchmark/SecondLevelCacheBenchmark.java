@@ -0,0 +1,137 @@
+package com.mycompany.petstore.benchmark;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.config.JpaConfig;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.model.Role;
+import com.mycompany.petstore.model.User;
+import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database statements per operation for a read-heavy mix (90% reads, 10% pet
+ * updates), run once bypassing the second-level and query caches and once using them.
+ * Run with {@code mvn test -Pbenchmark}; results are printed to stdout.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheBenchmark extends AbstractMySQLTest {
+
+    private static final int MASCOTAS = 200;
+    private static final int OPERATIONS = 5_000;
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private DuenioRepository duenioRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readHeavyMix_ShouldHitDatabaseLessWithSecondLevelCache() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Mascota> mascotas = tx.execute(status -> seed());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        run(tx, mascotas, CacheMode.NORMAL); // warm-up
+        statistics.clear();
+        run(tx, mascotas, CacheMode.IGNORE);
+        double uncached = (double) statistics.getPrepareStatementCount() / OPERATIONS;
+
+        statistics.clear();
+        run(tx, mascotas, CacheMode.NORMAL);
+        double cached = (double) statistics.getPrepareStatementCount() / OPERATIONS;
+        long hits = statistics.getSecondLevelCacheHitCount() + statistics.getQueryCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount() + statistics.getQueryCacheMissCount();
+
+        System.out.printf("without L2: %.2f statements/op%n", uncached);
+        System.out.printf("with L2:    %.2f statements/op (cache hit ratio %.0f%%)%n",
+                cached, 100.0 * hits / Math.max(1, hits + misses));
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            var regionStats = statistics.getDomainDataRegionStatistics(region);
+            System.out.printf("  %-20s hits %d, misses %d, puts %d%n", region,
+                    regionStats.getHitCount(), regionStats.getMissCount(), regionStats.getPutCount());
+        }
+
+        assertThat(cached).isLessThan(uncached / 2);
+    }
+
+    private void run(TransactionTemplate tx, List<Mascota> mascotas, CacheMode cacheMode) {
+        Random random = new Random(7);
+        for (int i = 0; i < OPERATIONS; i++) {
+            Mascota target = mascotas.get(random.nextInt(mascotas.size()));
+            int operation = random.nextInt(10);
+            tx.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+                switch (operation) {
+                    case 0 -> mascotaRepository.findById(target.getId()).orElseThrow()
+                            .setNombre("Mascota " + random.nextInt());
+                    case 1, 2, 3 -> mascotaRepository.findById(target.getId()).orElseThrow()
+                            .getDuenio().getNombre();
+                    case 4, 5 -> mascotaRepository.findDTOById(target.getId()).orElseThrow();
+                    case 6, 7 -> mascotaRepository.findVersionById(target.getId()).orElseThrow();
+                    case 8 -> duenioRepository.findByCelular(target.getDuenio().getCelular()).orElseThrow();
+                    default -> userRepository.findByUsername("recepcion").orElseThrow();
+                }
+            });
+        }
+    }
+
+    private List<Mascota> seed() {
+        userRepository.save(User.builder().firstName("Ana").lastName("Recepción").email("recepcion@petstore.com")
+                .username("recepcion").password("x").role(Role.USER).build());
+        List<Mascota> mascotas = new ArrayList<>();
+        for (int i = 0; i < MASCOTAS; i++) {
+            Duenio duenio = new Duenio();
+            duenio.setNombre("Duenio " + i);
+            duenio.setCelular(String.valueOf(7000 + i));
+
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota " + i);
+            mascota.setRaza("Labrador");
+            mascota.setColor("Negro");
+            mascota.setAlergico("NO");
+            mascota.setDuenio(duenio);
+            mascotas.add(mascotaRepository.save(mascota));
+        }
+        return mascotas;
+    }
+}
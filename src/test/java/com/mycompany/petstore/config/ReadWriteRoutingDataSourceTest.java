@@ -0,0 +1,129 @@
+package com.mycompany.petstore.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Routes between two embedded H2 databases, each knowing its own name, through the
+ * same lazy proxy and transaction manager setup as {@link ReadReplicaConfig}.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        configure(List.of(replica), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldUseReplica() {
+        assertThat(inReadOnly()).isEqualTo("replica");
+        assertThat(inReadWrite()).isEqualTo("primary");
+        assertThat(whereAmI()).isEqualTo("primary");
+    }
+
+    @Test
+    void failingReplica_ShouldFallBackToPrimaryUntilHealthy() throws SQLException {
+        // Given
+        DataSource flaky = spy(replica);
+        doThrow(new SQLException("replica down")).when(flaky).getConnection();
+        configure(List.of(flaky), Duration.ZERO);
+
+        // When/Then
+        assertThat(inReadOnly()).isEqualTo("primary");
+        assertThat(routing.isHealthy(0)).isFalse();
+
+        doCallRealMethod().when(flaky).getConnection();
+        routing.checkReplicas();
+        assertThat(routing.isHealthy(0)).isTrue();
+        assertThat(inReadOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void readYourWrites_ShouldKeepWriterOnPrimaryDuringWindow() {
+        // Given
+        configure(List.of(replica), Duration.ofMinutes(1));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("juan", null));
+
+        // When
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET name = name"));
+
+        // Then
+        assertThat(inReadOnly()).isEqualTo("primary");
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("maria", null));
+        assertThat(inReadOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void getConnectionWithCredentials_ShouldUsePrimary() throws SQLException {
+        // When
+        try (Connection connection = routing.getConnection("", "")) {
+            // Then
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+        }
+    }
+
+    private void configure(List<DataSource> replicas, Duration readYourWrites) {
+        routing = new ReadWriteRoutingDataSource(primary, replicas, readYourWrites);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String inReadOnly() {
+        return readOnly.execute(status -> whereAmI());
+    }
+
+    private String inReadWrite() {
+        return readWrite.execute(status -> whereAmI());
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
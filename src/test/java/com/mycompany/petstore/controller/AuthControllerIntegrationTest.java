@@ -4,8 +4,13 @@ import com.mycompany.petstore.BaseIntegrationTest;
 import com.mycompany.petstore.dto.AuthRequest;
 import com.mycompany.petstore.dto.AuthResponse;
 import com.mycompany.petstore.dto.RegisterRequest;
+import com.mycompany.petstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.ResultActions;
 
 import static org.hamcrest.Matchers.*;
@@ -16,6 +21,16 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
 
     private static final String REGISTER_URL = "/api/auth/register";
     private static final String LOGIN_URL = "/api/auth/login";
+    private static final String LOGOUT_URL = "/api/auth/logout";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Clear the users registered by other tests
+        userRepository.deleteAll();
+    }
 
     @Test
     void register_ValidRequest_ReturnsToken() throws Exception {
@@ -61,6 +76,19 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.expires_in").isNumber());
     }
 
+    @Test
+    @WithMockUser
+    void logout_WithoutBearerToken_ReturnsBadRequest() throws Exception {
+        // When
+        ResultActions missing = mockMvc.perform(post(LOGOUT_URL));
+        ResultActions basic = mockMvc.perform(post(LOGOUT_URL)
+                .header(HttpHeaders.AUTHORIZATION, "Basic"));
+
+        // Then
+        missing.andExpect(status().isBadRequest());
+        basic.andExpect(status().isBadRequest());
+    }
+
     @Test
     void login_InvalidCredentials_ReturnsUnauthorized() throws Exception {
         // Given
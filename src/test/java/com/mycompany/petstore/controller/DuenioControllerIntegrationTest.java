@@ -1,53 +1,59 @@
 package com.mycompany.petstore.controller;
 
 import com.mycompany.petstore.BaseIntegrationTest;
+import com.mycompany.petstore.QueryBudget;
 import com.mycompany.petstore.model.Duenio;
 import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.ResultActions;
 
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@WithMockUser
 class DuenioControllerIntegrationTest extends BaseIntegrationTest {
 
     @Autowired
     private DuenioRepository duenioRepository;
 
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
     private Duenio testDuenio;
 
     @BeforeEach
     void setUp() {
         // Clear the database before each test
+        mascotaRepository.deleteAll();
         duenioRepository.deleteAll();
-        
+
         // Create a test duenio
         testDuenio = new Duenio();
         testDuenio.setNombre("Juan");
-        testDuenio.setApellido("Perez");
-        testDuenio.setTelefono("123456789");
-        testDuenio.setDireccion("Calle Falsa 123");
-        testDuenio = duenioRepository.save(testDuenio);
+        testDuenio.setCelular("1123456789");
+        testDuenio = duenioRepository.saveAndFlush(testDuenio);
     }
 
     @Test
-    void getAllDuenios_ShouldReturnAllDuenios() throws Exception {
+    void getDuenios_ShouldReturnFirstPage() throws Exception {
         // When
         ResultActions result = mockMvc.perform(get("/api/duenios")
                 .contentType(MediaType.APPLICATION_JSON));
 
         // Then
         result.andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].nombre", is(testDuenio.getNombre())))
-                .andExpect(jsonPath("$[0].apellido", is(testDuenio.getApellido())));
+                .andExpect(QueryBudget.atMost(1))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].nombre", is(testDuenio.getNombre())))
+                .andExpect(jsonPath("$.items[0].celular", is(testDuenio.getCelular())))
+                .andExpect(jsonPath("$.hasMore", is(false)));
     }
 
     @Test
@@ -58,9 +64,22 @@ class DuenioControllerIntegrationTest extends BaseIntegrationTest {
 
         // Then
         result.andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1))
                 .andExpect(jsonPath("$.id", is(testDuenio.getId().intValue())))
                 .andExpect(jsonPath("$.nombre", is(testDuenio.getNombre())))
-                .andExpect(jsonPath("$.apellido", is(testDuenio.getApellido())));
+                .andExpect(jsonPath("$.celular", is(testDuenio.getCelular())));
+    }
+
+    @Test
+    void getDuenioByCelular_WithFormattedPhone_ShouldReturnDuenio() throws Exception {
+        // When
+        ResultActions result = mockMvc.perform(get("/api/duenios/by-celular/{phone}", "11 2345-6789")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        // Then
+        result.andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1))
+                .andExpect(jsonPath("$.id", is(testDuenio.getId().intValue())));
     }
 
     @Test
@@ -81,9 +100,7 @@ class DuenioControllerIntegrationTest extends BaseIntegrationTest {
         // Given
         Duenio newDuenio = new Duenio();
         newDuenio.setNombre("Maria");
-        newDuenio.setApellido("Gonzalez");
-        newDuenio.setTelefono("987654321");
-        newDuenio.setDireccion("Avenida Siempreviva 742");
+        newDuenio.setCelular("+54 9 11 8765-4321");
 
         // When
         ResultActions result = mockMvc.perform(post("/api/duenios")
@@ -94,35 +111,34 @@ class DuenioControllerIntegrationTest extends BaseIntegrationTest {
         result.andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id", notNullValue()))
                 .andExpect(jsonPath("$.nombre", is(newDuenio.getNombre())))
-                .andExpect(jsonPath("$.apellido", is(newDuenio.getApellido())));
+                .andExpect(jsonPath("$.celular", is("+5491187654321")));
 
         // Verify the duenio was saved in the database
-        List<Duenio> duenios = duenioRepository.findAll();
-        assertThat(duenios).hasSize(2);
-        assertThat(duenios.get(1).getNombre()).isEqualTo("Maria");
+        assertThat(duenioRepository.count()).isEqualTo(2);
     }
 
     @Test
     void updateDuenio_WithValidData_ShouldReturnUpdatedDuenio() throws Exception {
         // Given
-        testDuenio.setNombre("Juan Carlos");
-        testDuenio.setTelefono("555-1234");
+        Duenio changes = new Duenio();
+        changes.setNombre("Juan Carlos");
+        changes.setCelular("1155551234");
 
         // When
         ResultActions result = mockMvc.perform(put("/api/duenios/{id}", testDuenio.getId())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(testDuenio)));
+                .content(objectMapper.writeValueAsString(changes)));
 
         // Then
         result.andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(testDuenio.getId().intValue())))
                 .andExpect(jsonPath("$.nombre", is("Juan Carlos")))
-                .andExpect(jsonPath("$.telefono", is("555-1234")));
+                .andExpect(jsonPath("$.celular", is("1155551234")));
 
         // Verify the duenio was updated in the database
         Duenio updatedDuenio = duenioRepository.findById(testDuenio.getId()).orElseThrow();
         assertThat(updatedDuenio.getNombre()).isEqualTo("Juan Carlos");
-        assertThat(updatedDuenio.getTelefono()).isEqualTo("555-1234");
+        assertThat(updatedDuenio.getCelular()).isEqualTo("1155551234");
     }
 
     @Test
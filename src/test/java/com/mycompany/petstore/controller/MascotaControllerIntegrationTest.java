@@ -1,54 +1,68 @@
 package com.mycompany.petstore.controller;
 
 import com.mycompany.petstore.BaseIntegrationTest;
+import com.mycompany.petstore.QueryBudget;
 import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
 import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.DuenioRepository;
 import com.mycompany.petstore.repository.MascotaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.ResultActions;
 
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@WithMockUser
 class MascotaControllerIntegrationTest extends BaseIntegrationTest {
 
     @Autowired
     private MascotaRepository mascotaRepository;
 
+    @Autowired
+    private DuenioRepository duenioRepository;
+
     private Mascota testMascota;
 
     @BeforeEach
     void setUp() {
         // Clear the database before each test
         mascotaRepository.deleteAll();
-        
-        // Create a test mascota
+        duenioRepository.deleteAll();
+
+        // Create a test mascota with its owner
+        Duenio duenio = new Duenio();
+        duenio.setNombre("Juan");
+        duenio.setCelular("1123456789");
+
         testMascota = new Mascota();
         testMascota.setNombre("Max");
-        testMascota.setEspecie("Perro");
         testMascota.setRaza("Labrador");
-        testMascota.setEdad(3);
-        testMascota = mascotaRepository.save(testMascota);
+        testMascota.setColor("Negro");
+        testMascota.setAlergico("NO");
+        testMascota.setDuenio(duenio);
+        testMascota = mascotaRepository.saveAndFlush(testMascota);
     }
 
     @Test
-    void getAllMascotas_ShouldReturnAllMascotas() throws Exception {
+    void getMascotas_ShouldReturnFirstPage() throws Exception {
         // When
         ResultActions result = mockMvc.perform(get("/api/mascotas")
                 .contentType(MediaType.APPLICATION_JSON));
 
         // Then
         result.andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].nombre", is(testMascota.getNombre())))
-                .andExpect(jsonPath("$[0].especie", is(testMascota.getEspecie())));
+                .andExpect(QueryBudget.atMost(1))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].nombre", is(testMascota.getNombre())))
+                .andExpect(jsonPath("$.items[0].nombreDuenio", is("Juan")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
     }
 
     @Test
@@ -59,9 +73,11 @@ class MascotaControllerIntegrationTest extends BaseIntegrationTest {
 
         // Then
         result.andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2))
+                .andExpect(header().exists("ETag"))
                 .andExpect(jsonPath("$.id", is(testMascota.getId().intValue())))
                 .andExpect(jsonPath("$.nombre", is(testMascota.getNombre())))
-                .andExpect(jsonPath("$.especie", is(testMascota.getEspecie())));
+                .andExpect(jsonPath("$.raza", is(testMascota.getRaza())));
     }
 
     @Test
@@ -79,12 +95,14 @@ class MascotaControllerIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void createMascota_WithValidData_ShouldReturnCreatedMascota() throws Exception {
-        // Given
+        // Given: same phone as the existing owner, so the owner is reused
         MascotaDTO newMascota = new MascotaDTO();
         newMascota.setNombre("Luna");
-        newMascota.setEspecie("Gato");
         newMascota.setRaza("Siamés");
-        newMascota.setEdad(2);
+        newMascota.setColor("Blanco");
+        newMascota.setAlergico("SI");
+        newMascota.setNombreDuenio("Juan");
+        newMascota.setCelularDuenio("11 2345-6789");
 
         // When
         ResultActions result = mockMvc.perform(post("/api/mascotas")
@@ -95,35 +113,83 @@ class MascotaControllerIntegrationTest extends BaseIntegrationTest {
         result.andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id", notNullValue()))
                 .andExpect(jsonPath("$.nombre", is(newMascota.getNombre())))
-                .andExpect(jsonPath("$.especie", is(newMascota.getEspecie())));
+                .andExpect(jsonPath("$.celularDuenio", is("1123456789")));
 
         // Verify the mascota was saved in the database
-        List<Mascota> mascotas = mascotaRepository.findAll();
-        assertThat(mascotas).hasSize(2);
-        assertThat(mascotas.get(1).getNombre()).isEqualTo("Luna");
+        assertThat(mascotaRepository.count()).isEqualTo(2);
+        assertThat(mascotaRepository.countByDuenioId(testMascota.getDuenio().getId())).isEqualTo(2);
+    }
+
+    @Test
+    void createMascota_WithCelularWithoutDigits_ShouldReturnBadRequest() throws Exception {
+        // Given
+        MascotaDTO newMascota = new MascotaDTO();
+        newMascota.setNombre("Luna");
+        newMascota.setRaza("Siamés");
+        newMascota.setColor("Blanco");
+        newMascota.setAlergico("SI");
+        newMascota.setNombreDuenio("Juan");
+        newMascota.setCelularDuenio("-- --");
+
+        // When
+        ResultActions result = mockMvc.perform(post("/api/mascotas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newMascota)));
+
+        // Then
+        result.andExpect(status().isBadRequest());
+        assertThat(mascotaRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createMascota_WithTooLongRaza_ShouldReturnBadRequest() throws Exception {
+        // Given: longer than the indexed raza column
+        MascotaDTO newMascota = new MascotaDTO();
+        newMascota.setNombre("Luna");
+        newMascota.setRaza("x".repeat(101));
+        newMascota.setColor("Blanco");
+        newMascota.setAlergico("SI");
+        newMascota.setNombreDuenio("Juan");
+        newMascota.setCelularDuenio("1123456789");
+
+        // When
+        ResultActions result = mockMvc.perform(post("/api/mascotas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newMascota)));
+
+        // Then
+        result.andExpect(status().isBadRequest());
+        assertThat(mascotaRepository.count()).isEqualTo(1);
     }
 
     @Test
     void updateMascota_WithValidData_ShouldReturnUpdatedMascota() throws Exception {
         // Given
-        testMascota.setNombre("Max Updated");
-        testMascota.setEdad(4);
+        MascotaDTO changes = new MascotaDTO();
+        changes.setNombre("Max Updated");
+        changes.setRaza("Labrador");
+        changes.setColor("Chocolate");
+        changes.setAlergico("NO");
+        changes.setNombreDuenio("Juan");
+        changes.setCelularDuenio("1123456789");
 
         // When
         ResultActions result = mockMvc.perform(put("/api/mascotas/{id}", testMascota.getId())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(testMascota)));
+                .content(objectMapper.writeValueAsString(changes)));
 
         // Then
         result.andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(testMascota.getId().intValue())))
                 .andExpect(jsonPath("$.nombre", is("Max Updated")))
-                .andExpect(jsonPath("$.edad", is(4)));
+                .andExpect(jsonPath("$.color", is("Chocolate")))
+                .andExpect(header().string("ETag",
+                        mascotaRepository.findVersionById(testMascota.getId()).orElseThrow().toEtag()));
 
         // Verify the mascota was updated in the database
         Mascota updatedMascota = mascotaRepository.findById(testMascota.getId()).orElseThrow();
         assertThat(updatedMascota.getNombre()).isEqualTo("Max Updated");
-        assertThat(updatedMascota.getEdad()).isEqualTo(4);
+        assertThat(updatedMascota.getColor()).isEqualTo("Chocolate");
     }
 
     @Test
@@ -0,0 +1,133 @@
+package com.mycompany.petstore.monitoring;
+
+import com.mycompany.petstore.QueryBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs requests whose "controller" queries an embedded H2 database through the
+ * counting data source.
+ */
+class QueryCountingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(h2));
+        jdbcTemplate.execute("CREATE TABLE mascotas (num_cliente BIGINT PRIMARY KEY, nombre VARCHAR(100))");
+        jdbcTemplate.batchUpdate("INSERT INTO mascotas VALUES (?, ?)",
+                List.of(new Object[]{1L, "Firulais"}, new Object[]{2L, "Michi"}, new Object[]{3L, "Toby"}));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void request_ShouldReportStatementsInHeaderAndMetrics() throws Exception {
+        // Given
+        QueryCountingFilter filter = new QueryCountingFilter(meterRegistry, true, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/mascotas");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, handledBy("getAllMascotas", (req, res) -> {
+            jdbcTemplate.queryForList("SELECT nombre FROM mascotas", String.class);
+            jdbcTemplate.update("UPDATE mascotas SET nombre = nombre WHERE num_cliente < 3");
+            res.getWriter().write("[]");
+        }));
+
+        // Then
+        assertThat(response.getHeader(QueryCountingFilter.HEADER)).isEqualTo("2");
+        assertThat(meterRegistry.get("petstore.sql.statements").tag("handler", "QueryCountingFilterTest.getAllMascotas")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("petstore.sql.rows").summary().totalAmount()).isEqualTo(5);
+        assertThat(meterRegistry.get("petstore.sql.time").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("petstore.sql.repeated").counter()).isNull();
+    }
+
+    @Test
+    void repeatedStatement_ShouldBeCountedAsLikelyNPlusOne() throws Exception {
+        // Given
+        QueryCountingFilter filter = new QueryCountingFilter(meterRegistry, false, 3);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/mascotas"), response,
+                handledBy("getAllMascotas", (req, res) -> {
+                    for (long id = 1; id <= 3; id++) {
+                        jdbcTemplate.queryForObject("SELECT nombre FROM mascotas WHERE num_cliente = ?", String.class, id);
+                    }
+                }));
+
+        // Then
+        assertThat(response.getHeader(QueryCountingFilter.HEADER)).isNull();
+        assertThat(meterRegistry.get("petstore.sql.repeated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatedTask_ShouldCountTowardsTheCaller() {
+        QueryStats stats = QueryBudget.assertAtMost(2, () -> {
+            jdbcTemplate.queryForList("SELECT nombre FROM mascotas", String.class);
+            await(executor.submit(QueryStats.propagate(
+                    () -> jdbcTemplate.queryForList("SELECT num_cliente FROM mascotas"))));
+        });
+
+        assertThat(stats.statements()).isEqualTo(2);
+        assertThat(stats.rows()).isEqualTo(6);
+        assertThat(QueryStats.current()).isNull();
+    }
+
+    @Test
+    void overBudget_ShouldFail() {
+        assertThatThrownBy(() -> QueryBudget.assertNoRepeats(2, () -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mascotas", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mascotas", Long.class);
+        })).isInstanceOf(AssertionError.class);
+    }
+
+    // Marks the request as dispatched to a handler named after this test class, as the dispatcher would
+    private FilterChain handledBy(String method, FilterChain body) throws NoSuchMethodException {
+        HandlerMethod handler = new HandlerMethod(this, getClass().getDeclaredMethod(method));
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            body.doFilter(request, response);
+        };
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void getAllMascotas() {
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MascotaReadRepository.class)
+class MascotaReadRepositoryTest extends AbstractMySQLTest {
+
+    @Autowired
+    private MascotaReadRepository mascotaReads;
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void findAll_ShouldReturnSameRowsAsJpaProjection() {
+        // Given
+        persistMascotas(5);
+        Mascota sinDuenio = new Mascota();
+        sinDuenio.setNombre("Sin dueño");
+        sinDuenio.setRaza("Mestizo");
+        sinDuenio.setColor("Gris");
+        sinDuenio.setAlergico("NO");
+        entityManager.persistAndFlush(sinDuenio);
+        entityManager.clear();
+
+        // When
+        List<MascotaDTO> rows = mascotaReads.findAll();
+
+        // Then
+        assertThat(rows).hasSize(6).isEqualTo(mascotaRepository.findPageDTO(0L, PageRequest.of(0, 10)));
+        assertThat(rows.get(5).getNombreDuenio()).isNull();
+    }
+
+    @Test
+    void findPage_ShouldSeekPastCursorInIdOrder() {
+        // Given
+        List<Mascota> mascotas = persistMascotas(5);
+        Long afterId = mascotas.get(1).getId();
+
+        // When
+        List<MascotaDTO> page = mascotaReads.findPage(afterId, 2);
+
+        // Then
+        assertThat(page).isEqualTo(mascotaRepository.findPageDTO(afterId, PageRequest.of(0, 2)));
+        assertThat(page).extracting(MascotaDTO::getId)
+                .containsExactly(mascotas.get(2).getId(), mascotas.get(3).getId());
+    }
+
+    @Test
+    void search_ShouldApplyTrimmedFiltersAndIgnoreBlankOnes() {
+        // Given
+        List<Mascota> mascotas = persistMascotas(6);
+        MascotaSearchCriteria criteria = new MascotaSearchCriteria(" Caniche ", "", "SI", null);
+
+        // When
+        List<MascotaDTO> first = mascotaReads.search(criteria, 0L, 2);
+        List<MascotaDTO> next = mascotaReads.search(criteria, first.get(1).getId(), 2);
+        long total = mascotaReads.count(criteria);
+
+        // Then
+        assertThat(first).extracting(MascotaDTO::getId)
+                .containsExactly(mascotas.get(0).getId(), mascotas.get(2).getId());
+        assertThat(next).extracting(MascotaDTO::getId).containsExactly(mascotas.get(4).getId());
+        assertThat(total).isEqualTo(3);
+        assertThat(mascotaReads.findAllByIdIn(List.of(mascotas.get(4).getId(), mascotas.get(0).getId())))
+                .extracting(MascotaDTO::getNombre)
+                .containsExactly("Mascota 0", "Mascota 4");
+    }
+
+    @Test
+    void streamAll_ShouldNotLoadEntitiesIntoPersistenceContext() {
+        // Given
+        persistMascotas(4);
+        entityManager.clear();
+
+        // When
+        List<MascotaDTO> rows;
+        try (Stream<MascotaDTO> stream = mascotaReads.streamAll()) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).hasSize(4);
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
+    // Even-numbered pets are allergic Caniches, the rest black Labradors
+    private List<Mascota> persistMascotas(int count) {
+        List<Mascota> mascotas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Duenio duenio = new Duenio();
+            duenio.setNombre("Duenio " + i);
+            duenio.setCelular(String.valueOf(3000 + i));
+
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota " + i);
+            mascota.setRaza(i % 2 == 0 ? "Caniche" : "Labrador");
+            mascota.setColor(i % 2 == 0 ? "Blanco" : "Negro");
+            mascota.setAlergico(i % 2 == 0 ? "SI" : "NO");
+            mascota.setDuenio(duenio);
+            mascotas.add(entityManager.persist(mascota));
+        }
+        entityManager.flush();
+        return mascotas;
+    }
+}
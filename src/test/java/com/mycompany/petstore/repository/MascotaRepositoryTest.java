@@ -0,0 +1,156 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaVersion;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.monitoring.QueryCountingDataSource;
+import com.mycompany.petstore.monitoring.QueryStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MascotaRepositoryTest extends AbstractMySQLTest {
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+
+    private int nextCelular = 1000;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void readRepositoryFindAll_ShouldIssueSingleStatementRegardlessOfRowCount() {
+        // Given: the listing path, on the test transaction's connection so that it
+        // sees the rows persisted here, counted as QueryCountingDataSource does per request
+        MascotaReadRepository mascotaReads = new MascotaReadRepository(new QueryCountingDataSource(
+                new SingleConnectionDataSource(DataSourceUtils.getConnection(dataSource), true)), 1000);
+        persistMascotas(1);
+        List<MascotaDTO> few = new ArrayList<>();
+
+        // When
+        QueryStats fewStats = QueryStats.capture(() -> few.addAll(mascotaReads.findAll()));
+
+        // Then
+        assertThat(few).hasSize(1);
+        assertThat(fewStats.statements()).isEqualTo(1);
+
+        // Given
+        persistMascotas(49);
+        List<MascotaDTO> many = new ArrayList<>();
+
+        // When
+        QueryStats manyStats = QueryStats.capture(() -> many.addAll(mascotaReads.findAll()));
+
+        // Then
+        assertThat(many).hasSize(50);
+        assertThat(manyStats.statements()).isEqualTo(1);
+        assertThat(many).allSatisfy(dto -> {
+            assertThat(dto.getNombreDuenio()).isNotNull();
+            assertThat(dto.getCelularDuenio()).isNotNull();
+        });
+    }
+
+    @Test
+    void findDTOById_ShouldIssueSingleStatement() {
+        // Given
+        Long id = persistMascotas(1).get(0).getId();
+
+        // When
+        Optional<MascotaDTO> result = runCounted(() -> mascotaRepository.findDTOById(id));
+
+        // Then
+        assertThat(result).isPresent();
+        assertThat(result.get().getNombre()).isEqualTo("Mascota 0");
+        assertThat(result.get().getNombreDuenio()).isEqualTo("Duenio 0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPageDTO_ShouldSeekPastCursorInIdOrder() {
+        // Given
+        List<Mascota> mascotas = persistMascotas(5);
+        Long afterId = mascotas.get(1).getId();
+
+        // When
+        List<MascotaDTO> page = runCounted(() -> mascotaRepository.findPageDTO(afterId, PageRequest.of(0, 2)));
+
+        // Then
+        assertThat(page).extracting(MascotaDTO::getId)
+                .containsExactly(mascotas.get(2).getId(), mascotas.get(3).getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findVersionById_ShouldReadVersionsWithSingleStatement() {
+        // Given
+        Mascota mascota = persistMascotas(1).get(0);
+
+        // When
+        Optional<MascotaVersion> version = runCounted(() -> mascotaRepository.findVersionById(mascota.getId()));
+
+        // Then
+        assertThat(version).contains(new MascotaVersion(mascota.getId(), 0L, 0L));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private <T> T runCounted(Supplier<T> query) {
+        entityManager.clear();
+        statistics.clear();
+        return query.get();
+    }
+
+    private List<Mascota> persistMascotas(int count) {
+        List<Mascota> mascotas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Duenio duenio = new Duenio();
+            duenio.setNombre("Duenio " + i);
+            duenio.setCelular(String.valueOf(nextCelular++));
+
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota " + i);
+            mascota.setRaza("Labrador");
+            mascota.setColor("Negro");
+            mascota.setAlergico("NO");
+            mascota.setDuenio(duenio);
+            mascotas.add(entityManager.persist(mascota));
+        }
+        entityManager.flush();
+        return mascotas;
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the first-page search statement of {@link MascotaReadRepository}
+ * for every combination of filters, and checks that MySQL uses a composite index
+ * whose leading columns are exactly the filtered ones.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MascotaSearchIndexTest extends AbstractMySQLTest {
+
+    private static final List<String> COLUMNS = List.of("raza", "color", "alergico", "atencion_especial");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // Each searched value is rare, so an index on it beats walking the primary key
+        for (int i = 0; i < 3000; i++) {
+            Duenio duenio = new Duenio();
+            duenio.setNombre("Duenio " + i);
+            duenio.setCelular(String.valueOf(50000 + i));
+
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota " + i);
+            mascota.setRaza(i % 37 == 0 ? "Caniche" : "Raza " + i % 5);
+            mascota.setColor(i % 41 == 0 ? "Blanco" : "Color " + i % 4);
+            mascota.setAlergico(i % 43 == 0 ? "SI" : "NO");
+            mascota.setAtencionEspecial(i % 47 == 0 ? "SI" : "NO");
+            mascota.setDuenio(duenio);
+            entityManager.persist(mascota);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.execute("ANALYZE TABLE mascotas");
+    }
+
+    @Test
+    void everyFilterCombination_ShouldUseAnIndexLedByItsColumns() {
+        MascotaReadRepository reads = new MascotaReadRepository(dataSource, 1000);
+        for (int mask = 1; mask < (1 << COLUMNS.size()); mask++) {
+            MascotaSearchCriteria criteria = new MascotaSearchCriteria();
+            Set<String> filtered = new HashSet<>();
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                if ((mask & (1 << c)) != 0) {
+                    filtered.add(COLUMNS.get(c));
+                }
+            }
+            criteria.setRaza(filtered.contains("raza") ? "Caniche" : null);
+            criteria.setColor(filtered.contains("color") ? "Blanco" : null);
+            criteria.setAlergico(filtered.contains("alergico") ? "SI" : null);
+            criteria.setAtencionEspecial(filtered.contains("atencion_especial") ? "SI" : null);
+
+            List<Object> args = new ArrayList<>();
+            String sql = reads.searchSql(criteria, 0, 51, args);
+            Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args.toArray()).stream()
+                    .filter(row -> "m".equals(row.get("table")))
+                    .findFirst()
+                    .orElseThrow();
+
+            assertThat(plan.get("key")).as("%s %s", filtered, plan).isIn(indexesLedBy(filtered).toArray());
+        }
+    }
+
+    // Composite indexes declared on Mascota whose first columns are exactly these
+    private static List<String> indexesLedBy(Set<String> columns) {
+        List<String> names = new ArrayList<>();
+        for (Index index : Mascota.class.getAnnotation(Table.class).indexes()) {
+            List<String> indexed = Arrays.stream(index.columnList().split(",")).map(String::trim).toList();
+            if (indexed.size() >= columns.size()
+                    && new HashSet<>(indexed.subList(0, columns.size())).equals(columns)) {
+                names.add(index.name());
+            }
+        }
+        assertThat(names).as("no index is led by %s", columns).isNotEmpty();
+        return names;
+    }
+}
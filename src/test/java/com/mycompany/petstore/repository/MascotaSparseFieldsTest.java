@@ -0,0 +1,98 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.mycompany.petstore.repository.MascotaSparseFieldsTest$RecordingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MascotaSparseFieldsTest extends AbstractMySQLTest {
+
+    public static class RecordingInspector implements StatementInspector {
+        private static final long serialVersionUID = 1L;
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Duenio duenio = new Duenio();
+        duenio.setNombre("Juan");
+        duenio.setCelular("1122334455");
+
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Max");
+        mascota.setRaza("Labrador");
+        mascota.setColor("Negro");
+        mascota.setAlergico("NO");
+        mascota.setObservaciones("Texto largo que no se pidió");
+        mascota.setDuenio(duenio);
+        entityManager.persist(mascota);
+        entityManager.flush();
+        entityManager.clear();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findFields_ShouldSelectOnlyRequestedColumnsWithoutJoin() {
+        // When
+        List<Map<String, Object>> rows = mascotaRepository.findFields(
+                MascotaField.parse("nombre,raza"), null, 10);
+
+        // Then
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "nombre", "raza")
+                .containsEntry("nombre", "Max");
+        assertThat(RecordingInspector.STATEMENTS).singleElement().satisfies(sql -> {
+            assertThat(sql).doesNotContain("observaciones", "duenios", "color");
+        });
+    }
+
+    @Test
+    void findFields_WithOwnerField_ShouldJoinDuenio() {
+        // When
+        List<Map<String, Object>> rows = mascotaRepository.findFields(
+                MascotaField.parse("nombreDuenio"), null, 10);
+
+        // Then
+        assertThat(rows.get(0)).containsOnlyKeys("id", "nombreDuenio").containsEntry("nombreDuenio", "Juan");
+        assertThat(RecordingInspector.STATEMENTS).singleElement().satisfies(sql -> {
+            assertThat(sql).contains("duenios").doesNotContain("celular", "observaciones");
+        });
+    }
+
+    @Test
+    void parse_WithUnknownField_ShouldThrowException() {
+        assertThatThrownBy(() -> MascotaField.parse("id,edad"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Campo desconocido: edad");
+    }
+}
@@ -0,0 +1,254 @@
+package com.mycompany.petstore.repository;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against a seeded, analysed copy of the migrated schema,
+ * collects the SQL MySQL actually received from performance_schema and EXPLAINs it:
+ * none may scan a whole table. Only queries that serve requests or jobs are run. Reads of every row (findAll, the export
+ * streams) scan by design and are left out.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MascotaReadRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryQueryPlanTest extends AbstractMySQLTest {
+
+    private static final Set<String> TABLES =
+            Set.of("mascotas", "duenios", "users", "refresh_tokens", "revoked_tokens", "api_keys");
+    private static final int OWNERS = 2_000;
+    private static final int PETS = 10_000;
+    private static final int TOKENS = 3_000;
+
+    @Autowired
+    private MascotaRepository mascotaRepository;
+
+    @Autowired
+    private MascotaReadRepository mascotaReads;
+
+    @Autowired
+    private DuenioRepository duenioRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private ApiKeyRepository apiKeyRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // performance_schema needs more than the test user's privileges
+    private final JdbcTemplate root =
+            new JdbcTemplate(new DriverManagerDataSource(MYSQL.getJdbcUrl(), "root", MYSQL.getPassword()));
+
+    @BeforeEach
+    void setUp() {
+        seed(new JdbcTemplate(dataSource));
+        root.execute("ANALYZE TABLE " + String.join(", ", TABLES));
+        root.update("UPDATE performance_schema.setup_consumers SET ENABLED = 'YES' "
+                + "WHERE NAME = 'events_statements_history_long'");
+        root.update("TRUNCATE TABLE performance_schema.events_statements_history_long");
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String table : List.of("mascotas", "duenios", "users", "refresh_tokens", "revoked_tokens", "api_keys")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void everyRepositoryQuery_ShouldUseAnIndex() {
+        // When
+        runEveryQuery();
+        List<String> statements = root.queryForList(
+                "SELECT DISTINCT SQL_TEXT FROM performance_schema.events_statements_history_long "
+                        + "WHERE CURRENT_SCHEMA = DATABASE() AND THREAD_ID <> PS_CURRENT_THREAD_ID() "
+                        + "AND (SQL_TEXT LIKE 'select%' OR SQL_TEXT LIKE 'update%' OR SQL_TEXT LIKE 'delete%') "
+                        + "AND SQL_TEXT NOT LIKE '%\\_seq%'", String.class);
+
+        // Then
+        assertThat(statements).hasSizeGreaterThan(25);
+        List<String> scans = new ArrayList<>();
+        for (String sql : statements) {
+            for (Map<String, Object> step : root.queryForList("EXPLAIN " + sql)) {
+                if ("ALL".equals(step.get("type")) && TABLES.contains(String.valueOf(step.get("table")))) {
+                    scans.add(step.get("table") + ": " + sql);
+                }
+            }
+        }
+        assertThat(scans).as("full table scans").isEmpty();
+    }
+
+    private void runEveryQuery() {
+        Instant now = Instant.now();
+        List<Long> ids = List.of(10L, 20L, 30L);
+
+        mascotaRepository.findById(42L);
+        mascotaRepository.existsById(42L);
+        mascotaRepository.findDTOById(42L);
+        mascotaRepository.findVersionById(42L);
+        mascotaRepository.findPageDTO(5_000L, PageRequest.of(0, 20));
+        mascotaRepository.countByDuenioId(7L);
+        mascotaRepository.findIdsByDuenioId(7L);
+        // First and later pages, as MascotaService#search runs them
+        Set<MascotaField> fields = EnumSet.of(MascotaField.ID, MascotaField.NOMBRE, MascotaField.NOMBRE_DUENIO);
+        for (MascotaSearchCriteria criteria : searches()) {
+            var filters = MascotaSpecifications.matching(criteria);
+            mascotaRepository.findFields(fields, filters, 21);
+            mascotaRepository.findFields(fields, filters.and(MascotaSpecifications.idGreaterThan(100L)), 21);
+            mascotaRepository.count(filters);
+            mascotaReads.search(criteria, 0L, 21);
+            mascotaReads.search(criteria, 100L, 21);
+            mascotaReads.count(criteria);
+        }
+        mascotaReads.findAllByIdIn(ids);
+        mascotaReads.findPage(5_000L, 20);
+
+        duenioRepository.findById(7L);
+        duenioRepository.existsById(7L);
+        duenioRepository.findByCelular("117");
+        duenioRepository.findByCelularIn(List.of("117", "118", "119"));
+        duenioRepository.existsByCelular("117");
+        duenioRepository.findByIdGreaterThanOrderByIdAsc(1_000L, PageRequest.of(0, 50));
+
+        userRepository.findByUsername("user7");
+        userRepository.findByEmail("user7@petstore.com");
+        userRepository.existsByUsername("user7");
+        userRepository.existsByEmail("user7@petstore.com");
+
+        apiKeyRepository.findByKeyHashAndRevokedFalse(hash(7));
+        refreshTokenRepository.findByTokenHash(hash(7));
+        refreshTokenRepository.findByUsedFalseAndExpiresAtAfter(now);
+        revokedTokenRepository.findByExpiresAtAfter(now);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            refreshTokenRepository.markUsed(7L);
+            refreshTokenRepository.deleteByFamilyId(3L);
+            refreshTokenRepository.deleteExpired(now.minus(85, ChronoUnit.DAYS));
+            revokedTokenRepository.deleteExpired(now.minus(85, ChronoUnit.DAYS));
+            status.setRollbackOnly();
+        });
+    }
+
+    // Every search filter alone and a few combinations
+    private static List<MascotaSearchCriteria> searches() {
+        List<MascotaSearchCriteria> searches = new ArrayList<>();
+        searches.add(criteria("Caniche", null, null, null));
+        searches.add(criteria(null, "Negro", null, null));
+        searches.add(criteria(null, null, "SI", null));
+        searches.add(criteria(null, null, null, "SI"));
+        searches.add(criteria("Caniche", "Negro", null, null));
+        searches.add(criteria(null, "Negro", "SI", "NO"));
+        searches.add(criteria("Caniche", null, null, "SI"));
+        return searches;
+    }
+
+    private static MascotaSearchCriteria criteria(String raza, String color, String alergico, String atencion) {
+        MascotaSearchCriteria criteria = new MascotaSearchCriteria();
+        criteria.setRaza(raza);
+        criteria.setColor(color);
+        criteria.setAlergico(alergico);
+        criteria.setAtencionEspecial(atencion);
+        return criteria;
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        String[] razas = {"Caniche", "Labrador", "Beagle", "Bulldog", "Boxer", "Pug", "Mestizo", "Salchicha"};
+        String[] colores = {"Negro", "Blanco", "Marrón", "Gris", "Dorado", "Manchado"};
+        Instant now = Instant.now();
+        Timestamp future = Timestamp.from(now.plus(7, ChronoUnit.DAYS));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= OWNERS; id++) {
+            rows.add(new Object[]{id, "Dueño " + id, "11" + id});
+        }
+        jdbc.batchUpdate("INSERT INTO duenios (id, version, nombre, celular) VALUES (?, 0, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= PETS; id++) {
+            rows.add(new Object[]{id, "Mascota " + id, razas[(int) (id % razas.length)],
+                    colores[(int) (id / razas.length % colores.length)], id % 2 == 0 ? "SI" : "NO",
+                    id % 5 == 0 ? "SI" : "NO", id % OWNERS + 1});
+        }
+        jdbc.batchUpdate("INSERT INTO mascotas (num_cliente, version, nombre, raza, color, alergico, "
+                + "atencion_especial, duenio_id) VALUES (?, 0, ?, ?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= 1_000; id++) {
+            rows.add(new Object[]{id, "user" + id + "@petstore.com", "user" + id});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, email, first_name, last_name, password, username, role) "
+                + "VALUES (?, ?, 'Nombre', 'Apellido', 'x', ?, 'USER')", rows);
+
+        // Mostly expired over the last 90 days, as in production with a daily purge
+        rows.clear();
+        for (long id = 1; id <= TOKENS; id++) {
+            rows.add(new Object[]{id, hash(id), id, id / 3, id % 50 == 0 ? future : expired(now, id), id % 2 == 0});
+        }
+        jdbc.batchUpdate("INSERT INTO refresh_tokens (id, token_hash, user_id, family_id, expires_at, used) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= TOKENS; id++) {
+            rows.add(new Object[]{"jti-" + id, id % 50 == 0 ? future : expired(now, id)});
+        }
+        jdbc.batchUpdate("INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= 500; id++) {
+            rows.add(new Object[]{id, hash(id), "pk_" + id, "Cliente " + id, Timestamp.from(now), id % 10 == 0});
+        }
+        jdbc.batchUpdate("INSERT INTO api_keys (id, key_hash, prefix, name, scopes, quota_per_minute, created_at, "
+                + "revoked) VALUES (?, ?, ?, ?, 'READ', 60, ?, ?)", rows);
+    }
+
+    private static Timestamp expired(Instant now, long id) {
+        return Timestamp.from(now.minus(1 + id % 90, ChronoUnit.DAYS));
+    }
+
+    // Printable bytes, so the statement text performance_schema keeps can be replayed
+    private static byte[] hash(long id) {
+        return String.format("%032d", id).getBytes();
+    }
+}
@@ -0,0 +1,105 @@
+package com.mycompany.petstore.search;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Kind;
+import com.mycompany.petstore.search.NameAutocompleteIndex.Suggestion;
+import com.mycompany.petstore.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NameAutocompleteIndexTest {
+
+    private NameAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameAutocompleteIndex(null, null, null, null);
+        index.put(Kind.MASCOTA, 1L, "Max");
+        index.put(Kind.MASCOTA, 2L, "Maximiliano");
+        index.put(Kind.MASCOTA, 3L, "Luna");
+        index.put(Kind.DUENIO, 1L, "Juan Pérez");
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordStartIgnoringCaseAndAccents() {
+        // When
+        List<Suggestion> result = index.suggest("PER", 10);
+
+        // Then
+        assertThat(result).containsExactly(new Suggestion(Kind.DUENIO, 1L, "Juan Pérez"));
+    }
+
+    @Test
+    void suggest_ShouldReturnTopNInAlphabeticalOrder() {
+        // When
+        List<Suggestion> result = index.suggest("ma", 1);
+
+        // Then
+        assertThat(result).extracting(Suggestion::nombre).containsExactly("Max");
+        assertThat(index.suggest("ma", 10)).extracting(Suggestion::nombre).containsExactly("Max", "Maximiliano");
+    }
+
+    @Test
+    void putAndRemove_ShouldReplaceOldNames() {
+        // When
+        index.put(Kind.MASCOTA, 1L, "Rocky");
+        index.remove(Kind.DUENIO, 1L);
+
+        // Then
+        assertThat(index.suggest("max", 10)).extracting(Suggestion::id).containsExactly(2L);
+        assertThat(index.suggest("roc", 10)).extracting(Suggestion::id).containsExactly(1L);
+        assertThat(index.suggest("juan", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_ShouldSeeChangesAcrossMerges() {
+        // Given
+        for (long id = 100; id < 100 + 3L * NameAutocompleteIndex.MAX_PENDING; id++) {
+            index.put(Kind.MASCOTA, id, "Toby " + id);
+        }
+
+        // When
+        index.put(Kind.MASCOTA, 150L, "Bruno");
+        index.remove(Kind.MASCOTA, 2L);
+
+        // Then
+        assertThat(index.suggest("toby 15", 50)).extracting(Suggestion::id).doesNotContain(150L).contains(151L);
+        assertThat(index.suggest("bru", 10)).extracting(Suggestion::id).containsExactly(150L);
+        assertThat(index.suggest("max", 10)).extracting(Suggestion::id).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReading() {
+        // Given: pet 2 is renamed and owner 1 deleted after the names were read
+        MascotaRepository mascotaRepository = mock(MascotaRepository.class);
+        DuenioRepository duenioRepository = mock(DuenioRepository.class);
+        NameAutocompleteIndex rebuilt = new NameAutocompleteIndex(mascotaRepository, duenioRepository,
+                ShardRouter.single(), mock(PlatformTransactionManager.class));
+        when(mascotaRepository.streamAllDTO()).thenReturn(Stream.of(
+                new MascotaDTO(2L, "Luna", "Labrador", "Negro", "NO", null, null, "Juan", "11"))
+                .onClose(() -> {
+                    rebuilt.put(Kind.MASCOTA, 2L, "Nala");
+                    rebuilt.remove(Kind.DUENIO, 1L);
+                }));
+        when(duenioRepository.streamAll()).thenReturn(Stream.empty());
+        rebuilt.put(Kind.DUENIO, 1L, "Juan Pérez");
+
+        // When
+        rebuilt.rebuild();
+
+        // Then
+        assertThat(rebuilt.suggest("nal", 10)).extracting(Suggestion::id).containsExactly(2L);
+        assertThat(rebuilt.suggest("lun", 10)).isEmpty();
+        assertThat(rebuilt.suggest("juan", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,173 @@
+package com.mycompany.petstore.search;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ObservacionesIndexTest {
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ObservacionesIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ObservacionesIndex(mascotaRepository, ShardRouter.single(), transactionManager);
+    }
+
+    @Test
+    void terms_ShouldFoldAccentsAndDropStopWords() {
+        assertThat(SpanishAnalyzer.terms("Requiere SEDACIÓN para el corte; no muerde."))
+                .containsExactly("requiere", "sedacion", "corte", "no", "muerde");
+    }
+
+    @Test
+    void rebuild_ShouldIndexEveryNoteFromTheDatabase() {
+        // Given
+        when(mascotaRepository.streamAllDTO()).thenReturn(Stream.of(
+                mascota(1L, "Muerde si le tocan las patas"),
+                mascota(2L, "Otitis crónica, limpiar oídos"),
+                mascota(3L, null)));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("otitis", 10)).extracting(ObservacionesIndex.Hit::mascotaId).containsExactly(2L);
+    }
+
+    @Test
+    void search_ShouldRankRareTermsAndMoreMatchesFirst() {
+        // Given
+        index.index(1L, null, "Perro tranquilo");
+        index.index(2L, null, "Perro con otitis");
+        index.index(3L, null, "Perro que muerde, tiene otitis");
+        index.index(4L, null, "Perro nervioso");
+
+        // When
+        List<ObservacionesIndex.Hit> hits = index.search("otitis muerde perro", 10);
+
+        // Then
+        assertThat(hits).extracting(ObservacionesIndex.Hit::mascotaId).containsExactly(3L, 2L, 1L, 4L);
+    }
+
+    @Test
+    void search_ShouldRankLikeScoringEveryPet() {
+        // Given: dense and sparse terms, with changes still pending in the postings lists
+        String[] words = {"perro", "corte", "pelo", "otitis", "muerde", "sedacion"};
+        int[] density = {2, 2, 3, 40, 90, 400};
+        Random random = new Random(7);
+        Map<Long, Set<String>> notes = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            Set<String> terms = new HashSet<>();
+            for (int w = 0; w < words.length; w++) {
+                if (random.nextInt(density[w]) == 0) {
+                    terms.add(words[w]);
+                }
+            }
+            notes.put(id, terms);
+            index.index(id, null, String.join(" ", terms));
+        }
+        for (long id = 1; id <= 5000; id += 13) {
+            Set<String> terms = Set.of(words[random.nextInt(words.length)]);
+            index.index(id, String.join(" ", notes.get(id)), String.join(" ", terms));
+            notes.put(id, terms);
+        }
+
+        for (String query : List.of("perro corte", "perro otitis", "otitis muerde sedacion", "perro corte pelo otitis")) {
+            // When
+            List<ObservacionesIndex.Hit> hits = index.search(query, 20);
+
+            // Then
+            assertThat(hits).extracting(ObservacionesIndex.Hit::mascotaId)
+                    .as(query).containsExactlyElementsOf(scoreEveryPet(notes, query, 20));
+        }
+    }
+
+    @Test
+    void index_OnUpdateAndRemove_ShouldReplaceOldTerms() {
+        // Given
+        index.index(1L, null, "Necesita sedación");
+        index.index(2L, null, "Sedacion leve");
+
+        // When
+        index.index(1L, "Necesita sedación", "Ya no necesita nada");
+        index.remove(2L, "Sedacion leve");
+
+        // Then
+        assertThat(index.search("sedacion", 10)).isEmpty();
+        assertThat(index.search("NECESITA", 10)).extracting(ObservacionesIndex.Hit::mascotaId).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReading() {
+        // Given: pet 2 is created and pet 3 deleted after the rows were read
+        when(mascotaRepository.streamAllDTO()).thenReturn(Stream.of(
+                mascota(1L, "Muerde"),
+                mascota(3L, "Requiere sedación"))
+                .onClose(() -> {
+                    index.index(2L, null, "Otitis crónica");
+                    index.remove(3L, "Requiere sedación");
+                }));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("otitis", 10)).extracting(ObservacionesIndex.Hit::mascotaId).containsExactly(2L);
+        assertThat(index.search("sedacion", 10)).isEmpty();
+    }
+
+    // The ranking search promises, by brute force
+    private static List<Long> scoreEveryPet(Map<Long, Set<String>> notes, String query, int limit) {
+        Set<String> terms = SpanishAnalyzer.terms(query);
+        long documents = notes.values().stream().filter(t -> !t.isEmpty()).count();
+        Map<String, Double> idf = new HashMap<>();
+        for (String term : terms) {
+            long frequency = notes.values().stream().filter(t -> t.contains(term)).count();
+            idf.put(term, Math.log(1.0 + (double) documents / frequency));
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        notes.forEach((id, noteTerms) -> {
+            double score = terms.stream().filter(noteTerms::contains).mapToDouble(idf::get).sum();
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        });
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static MascotaDTO mascota(Long id, String observaciones) {
+        return new MascotaDTO(id, "Max", "Labrador", "Negro", "NO", null, observaciones, "Juan", "11");
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.petstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingsListTest {
+
+    @Test
+    void add_InIdOrder_ShouldEncodeSmallGapsInOneByte() {
+        // Given
+        PostingsList list = new PostingsList();
+
+        // When
+        for (long id = 1; id <= 1000; id++) {
+            list.add(id);
+        }
+
+        // Then
+        assertThat(list.size()).isEqualTo(1000);
+        assertThat(list.encodedBytes()).isEqualTo(1000);
+        assertThat(ids(list)).hasSize(1000).isSorted();
+    }
+
+    @Test
+    void addAndRemove_OutOfOrder_ShouldMatchSortedSetAcrossCompactions() {
+        // Given
+        PostingsList list = new PostingsList();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (long id = 0; id < 5000; id += 3) {
+            list.add(id + 100_000);
+            expected.add(id + 100_000);
+        }
+
+        // When
+        for (long id = 1; id < 2 * PostingsList.MAX_PENDING; id++) {
+            list.add(id * 7);
+            expected.add(id * 7);
+        }
+        for (long id = 0; id < 5000; id += 9) {
+            list.remove(id + 100_000);
+            expected.remove(id + 100_000);
+        }
+        list.add(100_000L);
+        expected.add(100_000L);
+
+        // Then
+        assertThat(list.size()).isEqualTo(expected.size());
+        assertThat(ids(list)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void advanceAndContains_ShouldSkipLikeSortedSet() {
+        // Given: several skip blocks, with pending changes on top
+        PostingsList list = new PostingsList();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(3);
+        for (long id = 1; id <= 20 * PostingsList.SKIP_INTERVAL; id++) {
+            if (random.nextBoolean()) {
+                list.add(id);
+                expected.add(id);
+            }
+        }
+        for (long id = 1; id <= 20 * PostingsList.SKIP_INTERVAL; id += 17) {
+            if (expected.remove(id)) {
+                list.remove(id);
+            } else {
+                list.add(id);
+                expected.add(id);
+            }
+        }
+
+        // When/Then
+        PostingsList.IdIterator ids = list.iterator();
+        for (long target = 1; ; target += 1 + random.nextInt(300)) {
+            Long next = expected.ceiling(target);
+            assertThat(ids.advance(target)).isEqualTo(next == null ? -1 : next);
+            assertThat(list.contains(target)).isEqualTo(expected.contains(target));
+            if (next == null) {
+                break;
+            }
+            target = next;
+        }
+    }
+
+    private static List<Long> ids(PostingsList list) {
+        List<Long> ids = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = list.iterator();
+        while (iterator.hasNext()) {
+            ids.add(iterator.nextLong());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,181 @@
+package com.mycompany.petstore.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.petstore.model.ApiKey;
+import com.mycompany.petstore.model.ApiKeyScope;
+import com.mycompany.petstore.repository.ApiKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyAuthenticationFilterTest {
+
+    private static final String KEY = "psk_clave-de-prueba";
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ApiKeyAuthenticator authenticator;
+
+    private ApiKeyAuthenticationFilter filter;
+
+    private ApiKey apiKey;
+
+    @BeforeEach
+    void setUp() {
+        authenticator = new ApiKeyAuthenticator(apiKeyRepository, 100, Duration.ofMinutes(1), Duration.ofSeconds(5), 3,
+                clock::get);
+        filter = new ApiKeyAuthenticationFilter(authenticator, new ObjectMapper().registerModule(new JavaTimeModule()));
+        apiKey = ApiKey.builder()
+                .id(1L)
+                .keyHash(ApiKeyAuthenticator.hash(KEY))
+                .prefix(KEY.substring(0, 12))
+                .name("perreras")
+                .scopes(EnumSet.of(ApiKeyScope.READ))
+                .quotaPerMinute(2)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithValidKey_ShouldAuthenticateWithoutRepeatedLookups() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any())).thenReturn(Optional.of(apiKey));
+
+        // When
+        MockHttpServletResponse first = filter("GET", KEY);
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse second = filter("GET", KEY);
+
+        // Then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isEqualTo(new ApiKeyPrincipal(1L, "perreras", EnumSet.of(ApiKeyScope.READ), 2));
+        verify(apiKeyRepository, times(1)).findByKeyHashAndRevokedFalse(any());
+    }
+
+    @Test
+    void doFilter_WithUnknownKey_ShouldRejectAndCacheTheMiss() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any())).thenReturn(Optional.empty());
+
+        // When
+        MockHttpServletResponse response = filter("GET", "psk_desconocida");
+        filter("GET", "psk_desconocida");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).contains("Invalid API key");
+        verify(apiKeyRepository, times(1)).findByKeyHashAndRevokedFalse(any());
+    }
+
+    @Test
+    void doFilter_WithRepeatedInvalidKeys_ShouldRejectClientBeforeLookup() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any())).thenReturn(Optional.empty());
+        for (int i = 0; i < 3; i++) {
+            filter("GET", "psk_adivinada-" + i);
+        }
+
+        // When
+        MockHttpServletResponse response = filter("GET", "psk_adivinada-3");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("20");
+        verify(apiKeyRepository, times(3)).findByKeyHashAndRevokedFalse(any());
+    }
+
+    @Test
+    void doFilter_WithoutScope_ShouldReturnForbidden() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any())).thenReturn(Optional.of(apiKey));
+
+        // When
+        MockHttpServletResponse response = filter("POST", KEY);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void doFilter_OverQuota_ShouldReturnTooManyRequests() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any())).thenReturn(Optional.of(apiKey));
+        filter("GET", KEY);
+        filter("GET", KEY);
+
+        // When
+        MockHttpServletResponse response = filter("GET", KEY);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("30");
+    }
+
+    @Test
+    void evict_ShouldForceLookupOnNextRequest() throws Exception {
+        // Given
+        when(apiKeyRepository.findByKeyHashAndRevokedFalse(any()))
+                .thenReturn(Optional.of(apiKey))
+                .thenReturn(Optional.empty());
+        filter("GET", KEY);
+
+        // When
+        authenticator.evict(apiKey);
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse response = filter("GET", KEY);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void doFilter_WithoutHeader_ShouldContinueUnauthenticated() throws Exception {
+        // When
+        MockHttpServletResponse response = filter("GET", null);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(apiKeyRepository);
+    }
+
+    private MockHttpServletResponse filter(String method, String key) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/mascotas");
+        if (key != null) {
+            request.addHeader(ApiKeyAuthenticationFilter.HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
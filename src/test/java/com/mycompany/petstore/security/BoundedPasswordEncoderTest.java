@@ -0,0 +1,103 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordLatency() {
+        // Given
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 1, 1, 1, meterRegistry);
+
+        // When
+        String encoded = encoder.encode("secret");
+
+        // Then
+        assertThat(encoded).isEqualTo("{plain}secret");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(meterRegistry.get("petstore.password.hash").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("petstore.password.hash").tag("operation", "matches").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void encode_WhenQueueIsFull_ShouldRejectWithRetryAfter() throws Exception {
+        // Given one hash running and one queued
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(release), 1, 1, 3, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        await(() -> encoder.queueDepth() == 1);
+
+        // When/Then
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ServiceBusyException.class)
+                .extracting(ex -> ((ServiceBusyException) ex).getRetryAfterSeconds()).isEqualTo(3L);
+        assertThat(meterRegistry.get("petstore.password.queue.depth").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("petstore.password.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}b");
+    }
+
+    @Test
+    void calibrate_ShouldStayWithinBounds() {
+        assertThat(BCryptCalibration.calibrate(Duration.ZERO)).isEqualTo(BCryptCalibration.MIN_STRENGTH);
+        assertThat(BCryptCalibration.calibrate(Duration.ofHours(1))).isEqualTo(BCryptCalibration.MAX_STRENGTH);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Blocks every hash until released, when a latch is given
+    private record PlainEncoder(CountDownLatch gate) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
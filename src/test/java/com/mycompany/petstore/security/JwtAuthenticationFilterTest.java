@@ -0,0 +1,132 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.model.Role;
+import com.mycompany.petstore.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    private JwtService jwtService;
+
+    private JwtAuthenticationFilter filter;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET_KEY, 3600000L, 100);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenDenylist, Duration.ofSeconds(60));
+        testUser = User.builder()
+                .id(7L)
+                .username("testuser")
+                .password("encodedPassword")
+                .role(Role.ADMIN)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithRoleClaims_ShouldAuthenticateWithoutUserLookup() throws Exception {
+        // Given
+        String token = jwtService.generateToken(testUser);
+
+        // When
+        Authentication authentication = filter(token);
+
+        // Then
+        assertThat(authentication.getPrincipal()).isEqualTo(new JwtPrincipal(7L, "testuser", "ADMIN"));
+        assertThat(authentication.getName()).isEqualTo("testuser");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ADMIN");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilter_WithLegacyToken_ShouldLoadUserOnceWithinTtl() throws Exception {
+        // Given
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(testUser);
+        String token = jwtService.generateToken((UserDetails) testUser);
+
+        // When
+        Authentication first = filter(token);
+        SecurityContextHolder.clearContext();
+        Authentication second = filter(token);
+
+        // Then
+        assertThat(first.getPrincipal()).isSameAs(testUser);
+        assertThat(second.getPrincipal()).isSameAs(testUser);
+        verify(userDetailsService, times(1)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void doFilter_WithExpiredToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        // Given
+        String expired = Jwts.builder()
+                .subject("testuser")
+                .claim(JwtPrincipal.ID_CLAIM, 7L)
+                .claim(JwtPrincipal.ROLE_CLAIM, "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .compact();
+
+        // When
+        Authentication authentication = filter(expired);
+
+        // Then
+        assertThat(authentication).isNull();
+    }
+
+    @Test
+    void doFilter_WithRevokedToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        String jti = jwtService.verify(token).getId();
+        when(tokenDenylist.isRevoked(jti)).thenReturn(true);
+
+        // When
+        Authentication authentication = filter(token);
+
+        // Then
+        assertThat(authentication).isNull();
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/mascotas");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
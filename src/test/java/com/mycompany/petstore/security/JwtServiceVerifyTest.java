@@ -0,0 +1,117 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.model.Role;
+import com.mycompany.petstore.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtServiceVerifyTest {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final long EXPIRATION_TIME_MS = 3600000L;
+
+    private JwtService jwtService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET_KEY, EXPIRATION_TIME_MS, 100);
+        testUser = User.builder()
+                .id(1L)
+                .username("testuser")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    void verify_WithGeneratedToken_ShouldReturnClaims() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+
+        // When
+        Claims claims = jwtService.verify(token);
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+        assertThat(claims.getExpiration()).isAfter(new Date());
+        assertThat(jwtService.isTokenValid(claims, testUser)).isTrue();
+    }
+
+    @Test
+    void verify_SameTokenTwice_ShouldReuseVerifiedClaims() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+
+        // When
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verify_WithTamperedToken_ShouldThrowException() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        jwtService.verify(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When/Then
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(SignatureException.class);
+        assertThat(jwtService.isTokenValid(tampered, testUser)).isFalse();
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrowException() {
+        // Given
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        String expired = Jwts.builder()
+                .subject("testuser")
+                .issuedAt(new Date(System.currentTimeMillis() - 7200000))
+                .expiration(new Date(System.currentTimeMillis() - 3600000))
+                .signWith(key)
+                .compact();
+
+        // When/Then
+        assertThatThrownBy(() -> jwtService.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtService.isTokenValid(expired, testUser)).isFalse();
+    }
+
+    @Test
+    void verify_WithShortLivedToken_ShouldStopTrustingItAfterExp() throws InterruptedException {
+        // Given
+        JwtService shortLived = new JwtService(SECRET_KEY, 1000L, 100);
+        String token = shortLived.generateToken(testUser);
+        shortLived.verify(token);
+
+        // When
+        Thread.sleep(1100);
+
+        // Then
+        assertThatThrownBy(() -> shortLived.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void isTokenValid_WithOtherUser_ShouldReturnFalse() {
+        // Given
+        Claims claims = jwtService.verify(jwtService.generateToken(testUser));
+        User other = User.builder().username("otheruser").password("x").role(Role.USER).build();
+
+        // When/Then
+        assertThat(jwtService.isTokenValid(claims, other)).isFalse();
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter(3, 10, Duration.ofMinutes(1), 1000, clock::get);
+    }
+
+    @Test
+    void acquireLogin_OverUsernameLimit_ShouldRejectWithRetryAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireLogin("juan", "10.0.0." + i);
+        }
+
+        // When/Then
+        assertThatThrownBy(() -> limiter.acquireLogin("JUAN", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting(ex -> ((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(20L);
+        assertThatCode(() -> limiter.acquireLogin("maria", "10.0.0.9")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void acquireLogin_OverIpLimit_ShouldRejectAnyUsername() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            limiter.acquireLogin("user" + i, "10.0.0.1");
+        }
+
+        // When/Then
+        assertThatThrownBy(() -> limiter.acquireLogin("otro", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void acquireLogin_AfterRefill_ShouldAllowAgain() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireLogin("juan", "10.0.0.1");
+        }
+        assertThatThrownBy(() -> limiter.acquireLogin("juan", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        // When: one token is earned every 20 seconds
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        // Then
+        assertThatCode(() -> limiter.acquireLogin("juan", "10.0.0.1")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> limiter.acquireLogin("juan", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void acquireLogin_WhenTrackingIsFull_ShouldShareOverflowBucketUntilSwept() {
+        // Given
+        LoginRateLimiter small = new LoginRateLimiter(3, 100, Duration.ofMinutes(1), 2, clock::get);
+        small.acquireLogin("a", "10.0.0.1");
+        small.acquireLogin("b", "10.0.0.1");
+
+        // When: new usernames share one bucket while the map is full
+        small.acquireLogin("c", "10.0.0.1");
+        small.acquireLogin("d", "10.0.0.1");
+        small.acquireLogin("e", "10.0.0.1");
+
+        // Then
+        assertThatThrownBy(() -> small.acquireLogin("f", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        for (int i = 0; i < 3; i++) {
+            small.acquireLogin("f", "10.0.0.1");
+        }
+    }
+
+    @Test
+    void acquireLogin_WhenTrackingIsFull_ShouldSweepAtMostOncePerPeriod() {
+        // Given: the map fills up, and a sweep at the end of the period frees it
+        LoginRateLimiter small = new LoginRateLimiter(2, 100, Duration.ofMinutes(1), 2, clock::get);
+        small.acquireLogin("a", "10.0.0.1");
+        small.acquireLogin("b", "10.0.0.1");
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        small.acquireLogin("c", "10.0.0.1");
+        small.acquireLogin("d", "10.0.0.1");
+        assertThat(small.trackedUsernames()).isEqualTo(2);
+
+        // When: c and d refill within the same period and another new username arrives
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        small.acquireLogin("e", "10.0.0.1");
+
+        // Then: no second sweep, so e uses the overflow bucket
+        assertThat(small.trackedUsernames()).isEqualTo(2);
+    }
+}
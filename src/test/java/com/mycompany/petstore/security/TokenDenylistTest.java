@@ -0,0 +1,130 @@
+package com.mycompany.petstore.security;
+
+import com.mycompany.petstore.model.RevokedToken;
+import com.mycompany.petstore.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new TokenDenylist(revokedTokenRepository, 1000, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void revoke_ShouldPersistAndRejectToken() {
+        // When
+        denylist.revoke("jti-1", NOW.plus(Duration.ofHours(1)));
+
+        // Then
+        assertThat(denylist.isRevoked("jti-1")).isTrue();
+        assertThat(denylist.isRevoked("jti-2")).isFalse();
+        assertThat(denylist.isRevoked(null)).isFalse();
+        verify(revokedTokenRepository).save(new RevokedToken("jti-1", NOW.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    void revoke_WithExpiredToken_ShouldDoNothing() {
+        // When
+        denylist.revoke("jti-1", NOW.minusSeconds(1));
+
+        // Then
+        assertThat(denylist.isRevoked("jti-1")).isFalse();
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void reload_ShouldPruneExpiredAndPickUpOtherInstances() {
+        // Given
+        denylist.revoke("local", NOW.plus(Duration.ofHours(1)));
+        when(revokedTokenRepository.findByExpiresAtAfter(NOW))
+                .thenReturn(List.of(new RevokedToken("remote", NOW.plus(Duration.ofMinutes(5)))));
+
+        // When
+        TokenDenylist later = new TokenDenylist(revokedTokenRepository, 1000,
+                Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+        denylist.reload();
+        later.reload();
+
+        // Then
+        assertThat(denylist.isRevoked("remote")).isTrue();
+        assertThat(denylist.isRevoked("local")).isTrue();
+        assertThat(later.size()).isZero();
+        verify(revokedTokenRepository).deleteExpired(NOW);
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        // Given
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        List<String> revoked = Stream.generate(() -> UUID.randomUUID().toString())
+                .limit(10_000).toList();
+        revoked.forEach(bloom::put);
+
+        // When
+        long falsePositives = Stream.generate(() -> UUID.randomUUID().toString())
+                .limit(100_000).filter(bloom::mightContain).count();
+
+        // Then
+        assertThat(revoked).allMatch(bloom::mightContain);
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void isRevoked_ForUnrevokedToken_ShouldNotAllocate() {
+        // Given
+        for (int i = 0; i < 1000; i++) {
+            denylist.revoke(UUID.randomUUID().toString(), NOW.plus(Duration.ofHours(1)));
+        }
+        String[] ids = new String[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        for (int i = 0; i < 100_000; i++) {
+            denylist.isRevoked(ids[i % ids.length]);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // When
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int hits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (denylist.isRevoked(ids[i % ids.length])) {
+                hits++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Then: a handful of bytes at most, from the measurement itself
+        assertThat(hits).isZero();
+        assertThat(allocated).isLessThan(1024);
+        verify(revokedTokenRepository, times(1000)).save(any(RevokedToken.class));
+    }
+}
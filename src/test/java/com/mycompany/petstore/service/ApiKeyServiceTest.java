@@ -0,0 +1,104 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.ApiKeyDTO;
+import com.mycompany.petstore.dto.ApiKeyRequest;
+import com.mycompany.petstore.model.ApiKey;
+import com.mycompany.petstore.model.ApiKeyScope;
+import com.mycompany.petstore.repository.ApiKeyRepository;
+import com.mycompany.petstore.security.ApiKeyAuthenticator;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyServiceTest {
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    @Mock
+    private ApiKeyAuthenticator apiKeyAuthenticator;
+
+    @InjectMocks
+    private ApiKeyService apiKeyService;
+
+    @Test
+    void create_ShouldReturnKeyOnceAndStoreOnlyItsHash() {
+        // Given
+        when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(inv -> {
+            ApiKey saved = inv.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        ApiKeyRequest request = new ApiKeyRequest("perreras", Set.of(ApiKeyScope.READ), 600);
+
+        // When
+        ApiKeyDTO result = apiKeyService.create(request);
+
+        // Then
+        assertThat(result.getKey()).startsWith(ApiKeyService.KEY_PREFIX).hasSizeGreaterThan(40);
+        assertThat(result.getPrefix()).isEqualTo(result.getKey().substring(0, 12));
+        verify(apiKeyRepository).save(argThat(k ->
+                Arrays.equals(k.getKeyHash(), ApiKeyAuthenticator.hash(result.getKey()))
+                        && k.getScopes().equals(Set.of(ApiKeyScope.READ))
+                        && k.getQuotaPerMinute() == 600));
+        assertThat(ApiKeyDTO.from(new ApiKey()).getKey()).isNull();
+    }
+
+    @Test
+    void revoke_ShouldMarkRevokedAndEvictFromCache() {
+        // Given
+        ApiKey apiKey = ApiKey.builder().id(1L).keyHash(new byte[32]).build();
+        when(apiKeyRepository.findById(1L)).thenReturn(Optional.of(apiKey));
+
+        // When
+        apiKeyService.revoke(1L);
+
+        // Then
+        assertThat(apiKey.isRevoked()).isTrue();
+        verify(apiKeyAuthenticator).evict(apiKey);
+    }
+
+    @Test
+    void revoke_InTransaction_ShouldEvictOnlyAfterCommit() {
+        // Given
+        ApiKey apiKey = ApiKey.builder().id(1L).keyHash(new byte[32]).build();
+        when(apiKeyRepository.findById(1L)).thenReturn(Optional.of(apiKey));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            apiKeyService.revoke(1L);
+
+            // Then
+            verify(apiKeyAuthenticator, never()).evict(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(apiKeyAuthenticator).evict(apiKey);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revoke_WithUnknownId_ShouldThrowException() {
+        // Given
+        when(apiKeyRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> apiKeyService.revoke(9L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("API key no encontrada con ID: 9");
+    }
+}
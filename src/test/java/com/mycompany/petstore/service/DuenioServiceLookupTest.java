@@ -0,0 +1,194 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DuenioServiceLookupTest {
+
+    @Mock
+    private DuenioRepository duenioRepository;
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private NameAutocompleteIndex nameIndex;
+
+    private DuenioService duenioService;
+
+    private Duenio testDuenio;
+
+    @BeforeEach
+    void setUp() {
+        duenioService = new DuenioService(duenioRepository, mascotaRepository, new ConcurrentMapCacheManager(),
+                transactionManager, nameIndex, ShardRouter.single(), 100);
+
+        testDuenio = new Duenio();
+        testDuenio.setId(1L);
+        testDuenio.setNombre("Juan");
+        testDuenio.setCelular("+5491112345678");
+    }
+
+    @Test
+    void normalizeCelular_ShouldKeepDigitsAndLeadingPlus() {
+        assertThat(DuenioService.normalizeCelular("+54 9 11 1234-5678")).isEqualTo("+5491112345678");
+        assertThat(DuenioService.normalizeCelular("(011) 1234+5678")).isEqualTo("01112345678");
+        assertThat(DuenioService.normalizeCelular(null)).isNull();
+    }
+
+    @Test
+    void normalizeCelular_WithoutDigits_ShouldBeRejected() {
+        assertThatThrownBy(() -> DuenioService.normalizeCelular("sin celular"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DuenioService.normalizeCelular(" + "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findOrCreate_WithExistingCelular_ShouldReuseOwner() {
+        // Given
+        when(duenioRepository.findByCelular("+5491112345678")).thenReturn(Optional.of(testDuenio));
+        when(duenioRepository.getReferenceById(1L)).thenReturn(testDuenio);
+
+        // When
+        Duenio result = duenioService.findOrCreate("Juan", "+54 9 11 1234-5678");
+
+        // Then
+        assertThat(result).isSameAs(testDuenio);
+        verify(duenioRepository, never()).saveAndFlush(any(Duenio.class));
+    }
+
+    @Test
+    void findOrCreate_ShouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(duenioRepository.findByCelular("+5491112345678")).thenReturn(Optional.of(testDuenio));
+        when(duenioRepository.getReferenceById(1L)).thenReturn(testDuenio);
+        when(duenioRepository.findById(1L)).thenReturn(Optional.of(testDuenio));
+
+        // When
+        duenioService.findOrCreate("Juan", "+5491112345678");
+        duenioService.findOrCreate("Juan", "+54 911 1234 5678");
+
+        // Then
+        verify(duenioRepository, times(1)).findByCelular("+5491112345678");
+    }
+
+    @Test
+    void findOrCreate_WhenCachedOwnerWasDeleted_ShouldCreateItAgain() {
+        // Given: the owner was cached, then deleted without this instance noticing
+        when(duenioRepository.findByCelular("+5491112345678"))
+                .thenReturn(Optional.of(testDuenio))
+                .thenReturn(Optional.empty());
+        when(duenioRepository.getReferenceById(anyLong())).thenAnswer(inv -> {
+            Duenio reference = new Duenio();
+            reference.setId(inv.getArgument(0));
+            return reference;
+        });
+        when(duenioRepository.findById(1L)).thenReturn(Optional.empty());
+        when(duenioRepository.saveAndFlush(any(Duenio.class))).thenAnswer(inv -> {
+            Duenio saved = inv.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        duenioService.findOrCreate("Juan", "+5491112345678");
+
+        // When
+        Duenio result = duenioService.findOrCreate("Juan", "+5491112345678");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void findOrCreate_WithNewCelular_ShouldInsertNormalisedOwner() {
+        // Given
+        when(duenioRepository.findByCelular("1122334455")).thenReturn(Optional.empty());
+        when(duenioRepository.saveAndFlush(any(Duenio.class))).thenAnswer(inv -> {
+            Duenio saved = inv.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        when(duenioRepository.getReferenceById(2L)).thenReturn(new Duenio());
+
+        // When
+        duenioService.findOrCreate("Maria", "11-2233-4455");
+
+        // Then
+        verify(duenioRepository).saveAndFlush(argThat(d ->
+                d.getCelular().equals("1122334455") && d.getNombre().equals("Maria")));
+    }
+
+    @Test
+    void findOrCreate_WhenConcurrentInsertWins_ShouldReturnTheirOwner() {
+        // Given
+        when(duenioRepository.findByCelular("+5491112345678"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(testDuenio));
+        when(duenioRepository.saveAndFlush(any(Duenio.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_duenios_celular"));
+        when(duenioRepository.getReferenceById(1L)).thenReturn(testDuenio);
+
+        // When
+        Duenio result = duenioService.findOrCreate("Juan", "+5491112345678");
+
+        // Then
+        assertThat(result).isSameAs(testDuenio);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void findByCelular_WithUnknownCelular_ShouldThrowException() {
+        // Given
+        when(duenioRepository.findByCelular("999")).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> duenioService.findByCelular("999"))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Dueño no encontrado con celular: 999");
+    }
+
+    @Test
+    void update_ShouldEvictOldCelularFromCache() {
+        // Given
+        when(duenioRepository.findByCelular("+5491112345678"))
+                .thenReturn(Optional.of(testDuenio))
+                .thenReturn(Optional.empty());
+        when(duenioRepository.findById(1L)).thenReturn(Optional.of(testDuenio));
+        when(duenioRepository.save(any(Duenio.class))).thenAnswer(inv -> inv.getArgument(0));
+        duenioService.findByCelular("+5491112345678");
+
+        Duenio cambios = new Duenio();
+        cambios.setNombre("Juan");
+        cambios.setCelular("1100000000");
+
+        // When
+        duenioService.update(1L, cambios);
+
+        // Then
+        assertThatThrownBy(() -> duenioService.findByCelular("+5491112345678"))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(duenioRepository, times(1)).findById(1L); // only by update, not a cache hit
+    }
+}
@@ -0,0 +1,198 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.BatchItemResult;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MascotaBatchServiceTest {
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private DuenioService duenioService;
+
+    @Mock
+    private ObservacionesIndex observacionesIndex;
+
+    @Mock
+    private NameAutocompleteIndex nameIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MascotaBatchService batchService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        batchService = new MascotaBatchService(
+                mascotaRepository, duenioService, observacionesIndex, nameIndex, transactionManager,
+                ShardRouter.single(), Validation.buildDefaultValidatorFactory().getValidator(), 2);
+        lenient().when(duenioService.findAllByCelular(anyCollection())).thenReturn(Map.of());
+    }
+
+    @Test
+    void saveAll_ShouldCommitInChunksAndReturnResultsInOrder() {
+        // Given
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> assignIds(inv.getArgument(0)));
+
+        // When
+        List<BatchItemResult> results = batchService.saveAll(mascotas(5));
+
+        // Then
+        assertThat(results).hasSize(5);
+        assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).allMatch(r -> r.getStatus() == BatchItemResult.Status.CREATED && r.getId() != null);
+        verify(mascotaRepository, times(3)).saveAll(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void saveAll_WithInvalidItem_ShouldReportItAndSaveTheRest() {
+        // Given
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> assignIds(inv.getArgument(0)));
+        List<MascotaDTO> mascotas = mascotas(3);
+        mascotas.get(1).setCelularDuenio(null);
+
+        // When
+        List<BatchItemResult> results = batchService.saveAll(mascotas);
+
+        // Then
+        assertThat(results.get(0).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+        assertThat(results.get(1).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        assertThat(results.get(1).getError()).contains("celularDuenio");
+        assertThat(results.get(2).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+        verify(mascotaRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void saveAll_WithTooLongRaza_ShouldReportItAndSaveTheRest() {
+        // Given
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> assignIds(inv.getArgument(0)));
+        List<MascotaDTO> mascotas = mascotas(2);
+        mascotas.get(0).setRaza("x".repeat(101));
+
+        // When
+        List<BatchItemResult> results = batchService.saveAll(mascotas);
+
+        // Then
+        assertThat(results.get(0).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        assertThat(results.get(0).getError()).contains("raza");
+        assertThat(results.get(1).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+    }
+
+    @Test
+    void saveAll_WithTooLongNombreDuenio_ShouldReportItAndSaveTheRest() {
+        // Given
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> assignIds(inv.getArgument(0)));
+        List<MascotaDTO> mascotas = mascotas(2);
+        mascotas.get(1).setNombreDuenio("x".repeat(256));
+
+        // When
+        List<BatchItemResult> results = batchService.saveAll(mascotas);
+
+        // Then
+        assertThat(results.get(0).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+        assertThat(results.get(1).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        assertThat(results.get(1).getError()).contains("nombreDuenio");
+    }
+
+    @Test
+    void saveAll_WhenChunkFails_ShouldRetryItsItemsOneByOne() {
+        // Given: the database rejects "Max 2" only
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Mascota> chunk = inv.getArgument(0);
+            if (chunk.stream().anyMatch(m -> m.getNombre().equals("Max 2"))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return assignIds(chunk);
+        });
+
+        // When
+        List<BatchItemResult> results = batchService.saveAll(mascotas(4));
+
+        // Then
+        assertThat(results).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.CREATED, BatchItemResult.Status.CREATED,
+                BatchItemResult.Status.FAILED, BatchItemResult.Status.CREATED);
+        assertThat(results.get(2).getError()).isEqualTo("No se pudo guardar la fila 2");
+        assertThat(results.get(3).getId()).isNotNull();
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void saveAll_ShouldReuseExistingAndSharedOwners() {
+        // Given
+        Duenio existente = new Duenio();
+        existente.setId(7L);
+        existente.setCelular("110");
+        when(duenioService.findAllByCelular(anyCollection())).thenReturn(Map.of("110", existente));
+        List<MascotaDTO> mascotas = mascotas(2);
+        mascotas.get(1).setCelularDuenio("11-0");
+        List<Mascota> saved = new ArrayList<>();
+        when(mascotaRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Mascota> chunk = assignIds(inv.getArgument(0));
+            saved.addAll(chunk);
+            return chunk;
+        });
+
+        // When
+        batchService.saveAll(mascotas);
+
+        // Then
+        assertThat(saved).extracting(Mascota::getDuenio).containsExactly(existente, existente);
+    }
+
+    @Test
+    void saveAll_OverMaximum_ShouldThrowException() {
+        List<MascotaDTO> tooMany = mascotas(MascotaBatchService.MAX_BATCH_ITEMS + 1);
+
+        assertThatThrownBy(() -> batchService.saveAll(tooMany))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(mascotaRepository);
+    }
+
+    private List<Mascota> assignIds(Iterable<Mascota> mascotas) {
+        List<Mascota> saved = new ArrayList<>();
+        mascotas.forEach(m -> {
+            m.setId(ids.incrementAndGet());
+            saved.add(m);
+        });
+        return saved;
+    }
+
+    private static List<MascotaDTO> mascotas(int count) {
+        List<MascotaDTO> mascotas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            mascotas.add(new MascotaDTO(null, "Max " + i, "Labrador", "Negro", "NO", null,
+                    null, "Juan", "11" + i));
+        }
+        return mascotas;
+    }
+}
@@ -0,0 +1,95 @@
+package com.mycompany.petstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.shard.ShardRouter;
+import com.mycompany.petstore.service.MascotaExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MascotaExportServiceTest {
+
+    @Mock
+    private MascotaReadRepository mascotaReads;
+
+    private MascotaExportService exportService;
+
+    private MascotaDTO max;
+    private MascotaDTO luna;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new MascotaExportService(mascotaReads, new ObjectMapper(), ShardRouter.single());
+
+        max = new MascotaDTO(1L, "Max", "Labrador", "Negro", "NO", "NO",
+                "Muerde, con cuidado", "Juan", "1122334455");
+        luna = new MascotaDTO(2L, "Luna", "Siamés", "Blanco", "SI", null,
+                "Dice \"miau\"\nsiempre", "Maria", "1199887766");
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // Given
+        when(mascotaReads.streamAll()).thenReturn(Stream.of(max, luna));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(ExportFormat.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        ObjectMapper mapper = new ObjectMapper();
+        assertThat(mapper.readValue(lines[0], MascotaDTO.class)).isEqualTo(max);
+        assertThat(mapper.readValue(lines[1], MascotaDTO.class)).isEqualTo(luna);
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndEscapeFields() throws Exception {
+        // Given
+        when(mascotaReads.streamAll()).thenReturn(Stream.of(max, luna));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(ExportFormat.CSV, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,nombre,raza,color,alergico,atencionEspecial,observaciones,nombreDuenio,celularDuenio\n"
+                        + "1,Max,Labrador,Negro,NO,NO,\"Muerde, con cuidado\",Juan,1122334455\n"
+                        + "2,Luna,Siamés,Blanco,SI,,\"Dice \"\"miau\"\"\nsiempre\",Maria,1199887766\n");
+    }
+
+    @Test
+    void export_ShouldCloseRepositoryStream() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(mascotaReads.streamAll()).thenReturn(Stream.of(max).onClose(() -> closed.set(true)));
+
+        // When
+        exportService.export(ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportFormat_From_ShouldRejectUnknownFormat() {
+        assertThat(ExportFormat.from(" csv ")).isEqualTo(ExportFormat.CSV);
+        assertThatThrownBy(() -> ExportFormat.from("xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.AbstractMySQLTest;
+import com.mycompany.petstore.config.CacheConfig;
+import com.mycompany.petstore.config.JpaConfig;
+import com.mycompany.petstore.config.ShardingConfig;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reads through the real caching and transaction proxies, committing every write,
+ * to check that a read after a write never returns the cached pre-write value.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheConfig.class, JpaConfig.class, ShardingConfig.class, MascotaService.class, DuenioService.class,
+        MascotaReadRepository.class, ObservacionesIndex.class, NameAutocompleteIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MascotaServiceCacheTest extends AbstractMySQLTest {
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private DuenioService duenioService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private MascotaDTO mascota;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String celular = String.valueOf(System.nanoTime());
+        mascota = mascotaService.save(new MascotaDTO(null, "Max", "Labrador", "Negro", "NO", null,
+                null, "Juan", celular));
+    }
+
+    @Test
+    void findById_SecondRead_ShouldNotHitDatabase() {
+        // Given
+        mascotaService.findById(mascota.getId());
+        statistics.clear();
+
+        // When
+        MascotaDTO cached = mascotaService.findById(mascota.getId());
+
+        // Then
+        assertThat(cached.getNombre()).isEqualTo("Max");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void update_ShouldEvictPetAndReflectOwnerChanges() {
+        // Given
+        mascotaService.findById(mascota.getId());
+        MascotaDTO cambios = new MascotaDTO(null, "Rocky", "Boxer", "Marron", "SI", null, null,
+                "Juan Carlos", mascota.getCelularDuenio());
+
+        // When
+        mascotaService.update(mascota.getId(), cambios);
+
+        // Then
+        MascotaDTO fresh = mascotaService.findById(mascota.getId());
+        assertThat(fresh.getNombre()).isEqualTo("Rocky");
+        assertThat(fresh.getNombreDuenio()).isEqualTo("Juan Carlos");
+    }
+
+    @Test
+    void ownerUpdate_ShouldEvictEveryPetOfThatOwner() {
+        // Given
+        MascotaDTO hermana = mascotaService.save(new MascotaDTO(null, "Luna", "Labrador", "Negro", "NO", null,
+                null, "Juan", mascota.getCelularDuenio()));
+        mascotaService.findById(mascota.getId());
+        mascotaService.findById(hermana.getId());
+        Duenio duenio = duenioService.findByCelular(mascota.getCelularDuenio());
+        duenioService.findById(duenio.getId());
+
+        Duenio cambios = new Duenio();
+        cambios.setNombre("Juana");
+        cambios.setCelular(duenio.getCelular());
+
+        // When
+        duenioService.update(duenio.getId(), cambios);
+
+        // Then
+        assertThat(mascotaService.findById(mascota.getId()).getNombreDuenio()).isEqualTo("Juana");
+        assertThat(mascotaService.findById(hermana.getId()).getNombreDuenio()).isEqualTo("Juana");
+        assertThat(duenioService.findById(duenio.getId()).getNombre()).isEqualTo("Juana");
+    }
+
+    @Test
+    void delete_ShouldEvictPet() {
+        // Given
+        mascotaService.findById(mascota.getId());
+
+        // When
+        mascotaService.delete(mascota.getId());
+
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.MASCOTAS).get(mascota.getId())).isNull();
+        assertThatThrownBy(() -> mascotaService.findById(mascota.getId()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+}
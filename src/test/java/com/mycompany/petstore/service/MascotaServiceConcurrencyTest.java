@@ -0,0 +1,121 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaField;
+import com.mycompany.petstore.dto.MascotaVersion;
+import com.mycompany.petstore.dto.VersionedMascota;
+import com.mycompany.petstore.exception.PreconditionFailedException;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.model.Mascota;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MascotaServiceConcurrencyTest {
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private DuenioService duenioService;
+
+    @Mock
+    private ObservacionesIndex observacionesIndex;
+
+    @Mock
+    private NameAutocompleteIndex nameIndex;
+
+    @Spy
+    private ShardRouter shards = ShardRouter.single();
+
+    @InjectMocks
+    private MascotaService mascotaService;
+
+    private Mascota mascota;
+
+    private MascotaDTO cambios;
+
+    @BeforeEach
+    void setUp() {
+        Duenio duenio = new Duenio();
+        duenio.setId(5L);
+        duenio.setVersion(2L);
+        duenio.setNombre("Juan");
+        duenio.setCelular("1122334455");
+
+        mascota = new Mascota();
+        mascota.setId(1L);
+        mascota.setVersion(3L);
+        mascota.setNombre("Max");
+        mascota.setDuenio(duenio);
+
+        cambios = new MascotaDTO(null, "Rocky", "Boxer", "Marron", "NO", null, null, "Juan", "1122334455");
+    }
+
+    @Test
+    void etag_ShouldDependOnPetAndOwnerVersionsAndFields() {
+        MascotaVersion version = new MascotaVersion(1L, 3L, 2L);
+
+        assertThat(version.toEtag()).isEqualTo("\"1-3-2\"");
+        assertThat(version.toEtag(MascotaField.parse("nombre"))).isNotEqualTo(version.toEtag());
+        assertThat(version.matches("\"0-0-0\", \"1-3-2\"")).isTrue();
+        assertThat(version.matches("*")).isTrue();
+        assertThat(version.matches("W/\"1-3-2\"")).isFalse();
+    }
+
+    @Test
+    void update_WithCurrentEtag_ShouldSave() {
+        // Given
+        when(mascotaRepository.findById(1L)).thenReturn(Optional.of(mascota));
+        when(mascotaRepository.saveAndFlush(any(Mascota.class))).thenAnswer(inv -> {
+            mascota.setVersion(4L);
+            return inv.getArgument(0);
+        });
+
+        // When
+        VersionedMascota result = mascotaService.update(1L, cambios, "\"1-3-2\"");
+
+        // Then
+        assertThat(result.mascota().getNombre()).isEqualTo("Rocky");
+        assertThat(result.version().toEtag()).isEqualTo("\"1-4-2\"");
+        verify(mascotaRepository).saveAndFlush(mascota);
+    }
+
+    @Test
+    void update_WithStaleEtag_ShouldThrowPreconditionFailed() {
+        // Given
+        when(mascotaRepository.findById(1L)).thenReturn(Optional.of(mascota));
+
+        // When/Then
+        assertThatThrownBy(() -> mascotaService.update(1L, cambios, "\"1-2-2\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(mascotaRepository, never()).saveAndFlush(any(Mascota.class));
+        verifyNoInteractions(duenioService);
+    }
+
+    @Test
+    void delete_WithStaleEtag_ShouldNotDelete() {
+        // Given
+        when(mascotaRepository.findById(1L)).thenReturn(Optional.of(mascota));
+
+        // When/Then
+        assertThatThrownBy(() -> mascotaService.delete(1L, "\"1-3-1\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(mascotaRepository, never()).delete(any(Mascota.class));
+    }
+}
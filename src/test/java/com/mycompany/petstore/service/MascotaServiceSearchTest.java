@@ -0,0 +1,82 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.CursorPage;
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.dto.MascotaSearchCriteria;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MascotaServiceSearchTest {
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private MascotaReadRepository mascotaReads;
+
+    @Mock
+    private DuenioService duenioService;
+
+    @Mock
+    private ObservacionesIndex observacionesIndex;
+
+    @Spy
+    private ShardRouter shards = ShardRouter.single();
+
+    @InjectMocks
+    private MascotaService mascotaService;
+
+    private final MascotaSearchCriteria criteria = new MascotaSearchCriteria("Caniche", null, "SI", " ");
+
+    @Test
+    void search_WithoutIncludeTotal_ShouldSkipCountQuery() {
+        // Given
+        when(mascotaReads.search(criteria, 0L, 3)).thenReturn(mascotas(3));
+
+        // When
+        CursorPage<MascotaDTO> page = mascotaService.search(criteria, null, 2, false);
+
+        // Then
+        assertThat(page.getItems()).extracting(MascotaDTO::getId).containsExactly(1L, 2L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getTotal()).isNull();
+        verify(mascotaReads, never()).count(any());
+    }
+
+    @Test
+    void search_WithIncludeTotal_ShouldCountMatches() {
+        // Given
+        when(mascotaReads.search(criteria, 10L, 3)).thenReturn(mascotas(1));
+        when(mascotaReads.count(criteria)).thenReturn(1L);
+
+        // When
+        CursorPage<MascotaDTO> page = mascotaService.search(criteria, CursorPage.encodeCursor(10L), 2, true);
+
+        // Then
+        assertThat(page.getTotal()).isEqualTo(1L);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private static List<MascotaDTO> mascotas(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new MascotaDTO(id, "Max", "Caniche", "Blanco", "SI", null, null, "Juan", "11"))
+                .toList();
+    }
+}
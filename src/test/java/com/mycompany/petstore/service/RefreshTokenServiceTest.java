@@ -0,0 +1,164 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.exception.InvalidRefreshTokenException;
+import com.mycompany.petstore.model.RefreshToken;
+import com.mycompany.petstore.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private final List<RefreshToken> saved = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(30),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            RefreshToken token = inv.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            saved.add(token);
+            return token;
+        });
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheHash() {
+        // When
+        String token = refreshTokenService.issue(1L);
+
+        // Then
+        RefreshToken stored = saved.get(0);
+        assertThat(stored.getTokenHash()).hasSize(32);
+        assertThat(new String(stored.getTokenHash())).doesNotContain(token);
+        assertThat(stored.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofDays(30)));
+        assertThat(refreshTokenService.activeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rotate_ShouldIssueNewTokenInSameFamilyWithoutLookup() {
+        // Given
+        String token = refreshTokenService.issue(1L);
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        // Then
+        assertThat(rotation.userId()).isEqualTo(1L);
+        assertThat(rotation.refreshToken()).isNotEqualTo(token);
+        assertThat(saved.get(1).getFamilyId()).isEqualTo(saved.get(0).getFamilyId());
+        assertThat(refreshTokenService.activeCount()).isEqualTo(1);
+        verify(refreshTokenRepository, never()).findByTokenHash(any());
+    }
+
+    @Test
+    void rotate_WithReusedToken_ShouldRevokeFamily() {
+        // Given
+        String token = refreshTokenService.issue(1L);
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(1);
+        String next = refreshTokenService.rotate(token).refreshToken();
+        RefreshToken used = saved.get(0);
+        used.setUsed(true);
+        when(refreshTokenRepository.findByTokenHash(any()))
+                .thenAnswer(inv -> Arrays.equals(inv.getArgument(0), used.getTokenHash())
+                        ? Optional.of(used) : Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessage("Refresh token already used");
+        verify(refreshTokenRepository).deleteByFamilyId(used.getFamilyId());
+        assertThatThrownBy(() -> refreshTokenService.rotate(next))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void rotate_WhenConcurrentRefreshWins_ShouldRevokeFamily() {
+        // Given
+        String token = refreshTokenService.issue(1L);
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(0);
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository).deleteByFamilyId(saved.get(0).getFamilyId());
+    }
+
+    @Test
+    void rotate_WithExpiredToken_ShouldThrowException() {
+        // Given
+        RefreshTokenService expired = new RefreshTokenService(refreshTokenRepository, Duration.ZERO,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        String token = expired.issue(1L);
+
+        // When/Then
+        assertThatThrownBy(() -> expired.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessage("Refresh token expired");
+        verify(refreshTokenRepository, never()).markUsed(any());
+    }
+
+    @Test
+    void rotate_WithUnknownToken_ShouldThrowException() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("desconocido"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredTokensFromTableAndMemory() {
+        // Given
+        RefreshTokenService expiring = new RefreshTokenService(refreshTokenRepository, Duration.ZERO,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        expiring.issue(1L);
+        expiring.issue(2L);
+
+        // When
+        expiring.purgeExpired();
+
+        // Then
+        assertThat(expiring.activeCount()).isZero();
+        verify(refreshTokenRepository).deleteExpired(NOW);
+    }
+
+    @Test
+    void issue_ShouldStartUnrelatedFamilies() {
+        // When
+        refreshTokenService.issue(1L);
+        refreshTokenService.issue(1L);
+
+        // Then
+        assertThat(saved.get(0).getFamilyId()).isPositive().isNotEqualTo(saved.get(1).getFamilyId());
+    }
+}
@@ -0,0 +1,219 @@
+package com.mycompany.petstore.service;
+
+import com.mycompany.petstore.dto.MascotaDTO;
+import com.mycompany.petstore.model.Duenio;
+import com.mycompany.petstore.repository.DuenioRepository;
+import com.mycompany.petstore.repository.MascotaReadRepository;
+import com.mycompany.petstore.repository.MascotaRepository;
+import com.mycompany.petstore.search.NameAutocompleteIndex;
+import com.mycompany.petstore.search.ObservacionesIndex;
+import com.mycompany.petstore.shard.ShardRouter;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hundreds of threads look up the same few ids at once while the repository is
+ * slow; each id must reach the repository exactly once.
+ */
+@ExtendWith(MockitoExtension.class)
+class SingleFlightTest {
+
+    private static final int THREADS = 400;
+    private static final long[] IDS = {1L, 2L, 3L, 4L};
+
+    @Mock
+    private MascotaRepository mascotaRepository;
+
+    @Mock
+    private DuenioRepository duenioRepository;
+
+    @Mock
+    private DuenioService duenioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mascotaFindById_ConcurrentMisses_ShouldQueryOncePerId() throws Exception {
+        // Given
+        MascotaService mascotaService = new MascotaService(mascotaRepository, mock(MascotaReadRepository.class), duenioService,
+                mock(ObservacionesIndex.class), mock(NameAutocompleteIndex.class), ShardRouter.single(),
+                transactionManager);
+        when(mascotaRepository.findDTOById(anyLong())).thenAnswer(inv -> {
+            Thread.sleep(200);
+            Long id = inv.getArgument(0);
+            return Optional.of(new MascotaDTO(id, "Max " + id, "Labrador", "Negro", "NO", null, null, "Juan", "11"));
+        });
+
+        // When
+        List<MascotaDTO> results = runConcurrently(mascotaService::findById);
+
+        // Then
+        assertThat(results).hasSize(THREADS).allMatch(dto -> dto.getNombre().equals("Max " + dto.getId()));
+        for (long id : IDS) {
+            verify(mascotaRepository, times(1)).findDTOById(id);
+        }
+    }
+
+    @Test
+    void duenioFindById_ConcurrentMisses_ShouldQueryOncePerId() throws Exception {
+        // Given
+        DuenioService service = new DuenioService(duenioRepository, mascotaRepository,
+                new ConcurrentMapCacheManager(), transactionManager, mock(NameAutocompleteIndex.class),
+                ShardRouter.single(), 100);
+        when(duenioRepository.findById(anyLong())).thenAnswer(inv -> {
+            Thread.sleep(200);
+            Duenio duenio = new Duenio();
+            duenio.setId(inv.getArgument(0));
+            return Optional.of(duenio);
+        });
+
+        // When
+        List<Duenio> results = runConcurrently(service::findById);
+
+        // Then
+        assertThat(results).hasSize(THREADS);
+        for (long id : IDS) {
+            verify(duenioRepository, times(1)).findById(id);
+        }
+    }
+
+    @Test
+    void findById_WhenLeaderFails_ShouldPropagateFailureToEveryWaiter() throws Exception {
+        // Given
+        MascotaService mascotaService = new MascotaService(mascotaRepository, mock(MascotaReadRepository.class), duenioService,
+                mock(ObservacionesIndex.class), mock(NameAutocompleteIndex.class), ShardRouter.single(),
+                transactionManager);
+        when(mascotaRepository.findDTOById(anyLong())).thenAnswer(inv -> {
+            Thread.sleep(200);
+            return Optional.empty();
+        });
+
+        // When/Then
+        assertThatThrownBy(() -> runConcurrently(mascotaService::findById))
+                .hasCauseInstanceOf(EntityNotFoundException.class);
+        List<Throwable> failures = collectFailures(mascotaService::findById);
+        assertThat(failures).hasSize(THREADS).allSatisfy(failure ->
+                assertThat(failure).isInstanceOf(EntityNotFoundException.class)
+                        .hasMessageStartingWith("Mascota no encontrada con ID: "));
+        verify(mascotaRepository, times(2 * IDS.length)).findDTOById(anyLong());
+    }
+
+    @Test
+    void load_WhenLeaderThrows_ShouldGiveEachWaiterItsOwnException() throws Exception {
+        // Given: a leader that fails once the waiters have joined
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("boom");
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+            await(release);
+            throw failure;
+        }));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            waiters.add(executor.submit(() -> singleFlight.load(1L, () -> "not shared")));
+        }
+        Thread.sleep(100);
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).hasCause(failure);
+        List<Throwable> seen = new ArrayList<>();
+        for (Future<String> waiter : waiters) {
+            assertThatThrownBy(() -> waiter.get(10, TimeUnit.SECONDS)).satisfies(ex -> seen.add(ex.getCause()));
+        }
+        assertThat(seen).allSatisfy(ex ->
+                assertThat(ex).isInstanceOf(CompletionException.class).hasCause(failure));
+        assertThat(seen.get(0)).isNotSameAs(seen.get(1));
+    }
+
+    @Test
+    void load_AfterCompletion_ShouldNotKeepResults() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        assertThat(singleFlight.load(1L, () -> "a")).isEqualTo("a");
+        assertThat(singleFlight.load(1L, () -> "b")).isEqualTo("b");
+        assertThatThrownBy(() -> singleFlight.load(1L, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> List<T> runConcurrently(Function<Long, T> lookup) throws Exception {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : submitAll(lookup)) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private List<Throwable> collectFailures(Function<Long, ?> lookup) throws Exception {
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> future : submitAll(lookup)) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        return failures;
+    }
+
+    private <T> List<Future<T>> submitAll(Function<Long, T> lookup) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            long id = IDS[i % IDS.length];
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return lookup.apply(id);
+            }));
+        }
+        ready.await();
+        start.countDown();
+        return futures;
+    }
+}
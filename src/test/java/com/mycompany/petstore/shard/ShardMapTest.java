@@ -0,0 +1,71 @@
+package com.mycompany.petstore.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardMapTest {
+
+    private static final int OWNERS = 30_000;
+
+    @Test
+    void uniform_ShouldSpreadSequentialIdsEvenly() {
+        // Given
+        ShardMap map = ShardMap.uniform(3, 64);
+        int[] owners = new int[3];
+
+        // When
+        for (long id = 1; id <= OWNERS; id++) {
+            owners[map.shardFor(id)]++;
+        }
+
+        // Then
+        for (int count : owners) {
+            assertThat(count).isBetween(OWNERS / 4, OWNERS / 2);
+        }
+    }
+
+    @Test
+    void withPoints_ShouldNotChangeRoutingUntilSegmentsMove() {
+        // Given
+        ShardMap map = ShardMap.uniform(2, 16);
+
+        // When
+        ShardMap grown = map.withPoints(2, 16);
+
+        // Then
+        assertThat(grown.segmentCount()).isEqualTo(48);
+        assertThat(grown.shards()).containsExactlyInAnyOrder(0, 1);
+        for (long id = 1; id <= OWNERS; id++) {
+            assertThat(grown.shardFor(id)).isEqualTo(map.shardFor(id));
+        }
+    }
+
+    @Test
+    void withSegment_ShouldMoveOnlyThatSegmentsOwners() {
+        // Given
+        ShardMap map = ShardMap.uniform(2, 16);
+        int segment = map.segmentOf(42L);
+        int target = 1 - map.shardOf(segment);
+
+        // When
+        ShardMap moved = map.withSegment(segment, target);
+
+        // Then
+        assertThat(moved.shardFor(42L)).isEqualTo(target);
+        for (long id = 1; id <= OWNERS; id++) {
+            if (map.segmentOf(id) != segment) {
+                assertThat(moved.shardFor(id)).isEqualTo(map.shardFor(id));
+            }
+        }
+    }
+
+    @Test
+    void of_ShouldRoundTripThroughTreeMap() {
+        ShardMap map = ShardMap.uniform(3, 8).withSegment(5, 0);
+
+        assertThat(ShardMap.of(new TreeMap<>(map.toTreeMap()))).isEqualTo(map);
+    }
+}
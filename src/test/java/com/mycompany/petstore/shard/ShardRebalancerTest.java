@@ -0,0 +1,195 @@
+package com.mycompany.petstore.shard;
+
+import com.mycompany.petstore.config.ShardingConfig;
+import com.mycompany.petstore.exception.ServiceBusyException;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Three embedded H2 databases; the ring starts over the first two and the third is
+ * brought in with {@link ShardRebalancer#addShard(int)}.
+ */
+class ShardRebalancerTest {
+
+    private static final int OWNERS = 40;
+
+    private final List<DataSource> databases = new ArrayList<>();
+    private ShardRouter router;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        for (int shard = 0; shard < 3; shard++) {
+            databases.add(database(run + "-" + shard));
+        }
+        migrate(databases);
+        router = new ShardRouter(ShardRebalancer.loadMap(databases.get(0), 2, 8), 3, 3);
+        rebalancer = new ShardRebalancer(router, databases, 8, Duration.ZERO, 7);
+        for (long id = 1; id <= OWNERS; id++) {
+            jdbc(ShardRouter.LANDING_SHARD).update(
+                    "INSERT INTO duenios (id, version, nombre, celular) VALUES (?, 0, ?, ?)", id, "Dueño " + id, "11" + id);
+            jdbc(ShardRouter.LANDING_SHARD).update("INSERT INTO mascotas (num_cliente, version, nombre, raza, color, "
+                    + "alergico, atencion_especial, duenio_id) VALUES (?, 0, 'Firulais', 'Mestizo', 'Negro', 'NO', 'NO', ?)",
+                    id, id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    void settle_ShouldMoveLandingOwnersToTheirRingShard() {
+        // When
+        int moved = rebalancer.settle();
+
+        // Then
+        assertThat(moved).isEqualTo(countOn(1));
+        assertThat(moved).isPositive();
+        assertEveryOwnerOnRingShard();
+        assertThat(rebalancer.settle()).isZero();
+    }
+
+    @Test
+    void settle_WhileAnotherInstanceHoldsTheLock_ShouldLeaveOwnersInPlace() throws SQLException {
+        // Given
+        try (Connection other = databases.get(ShardRouter.LANDING_SHARD).getConnection()) {
+            other.setAutoCommit(false);
+            other.createStatement().executeQuery("SELECT name FROM shard_lock FOR UPDATE").close();
+
+            // When
+            int moved = rebalancer.settle();
+
+            // Then
+            assertThat(moved).isZero();
+            assertThat(countOn(ShardRouter.LANDING_SHARD)).isEqualTo(OWNERS);
+            assertThatThrownBy(() -> rebalancer.addShard(2)).isInstanceOf(ServiceBusyException.class);
+            other.rollback();
+        }
+        assertThat(rebalancer.settle()).isPositive();
+        assertThat(router.frozenSegments()).isEmpty();
+    }
+
+    @Test
+    void addShard_ShouldMoveOnlyTheNewShardsSegments() {
+        // Given
+        rebalancer.settle();
+        ShardMap before = router.map();
+
+        // When
+        int moved = rebalancer.addShard(2);
+
+        // Then
+        assertThat(moved).isEqualTo(countOn(2));
+        assertThat(moved).isPositive();
+        assertEveryOwnerOnRingShard();
+        for (long id = 1; id <= OWNERS; id++) {
+            if (router.shardFor(id) != 2) {
+                assertThat(router.shardFor(id)).isEqualTo(before.shardFor(id));
+            }
+        }
+        assertThat(ShardRebalancer.loadMap(databases.get(0), 3, 8)).isEqualTo(router.map());
+        assertThat(router.frozenSegments()).isEmpty();
+    }
+
+    @Test
+    void movingSegment_ShouldRefuseWritesToItsOwners() {
+        // Given
+        ShardMap map = router.map();
+        int segment = map.segmentOf(7L);
+        jdbc(ShardRouter.LANDING_SHARD).update("UPDATE shard_ring SET moving = TRUE WHERE token = ?", map.token(segment));
+
+        // When
+        rebalancer.refresh();
+
+        // Then
+        assertThatThrownBy(() -> router.checkWritable(7L)).isInstanceOf(ServiceBusyException.class);
+        for (long id = 1; id <= OWNERS; id++) {
+            if (map.segmentOf(id) != segment) {
+                router.checkWritable(id);
+            }
+        }
+    }
+
+    @Test
+    void gather_ShouldMergeEveryShardInOrder() {
+        // Given
+        rebalancer.settle();
+
+        // When
+        List<Long> ids = router.gather(shard -> jdbc(shard).queryForList(
+                "SELECT id FROM duenios ORDER BY id LIMIT 10", Long.class), Comparator.naturalOrder(), 10);
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void streamAll_ShouldReadEveryShardAPageAtATime() {
+        // Given
+        rebalancer.settle();
+        rebalancer.addShard(2);
+
+        // When
+        List<Long> ids = router.streamAll(List.<Long>of()::stream, (shard, last) -> jdbc(shard).queryForList(
+                "SELECT num_cliente FROM mascotas WHERE num_cliente > ? ORDER BY num_cliente LIMIT 3",
+                Long.class, last == null ? 0L : last), Comparator.naturalOrder()).toList();
+
+        // Then
+        assertThat(ids).hasSize(OWNERS).isSorted();
+    }
+
+    private void assertEveryOwnerOnRingShard() {
+        for (long id = 1; id <= OWNERS; id++) {
+            int shard = router.shardFor(id);
+            for (int other = 0; other < databases.size(); other++) {
+                int expected = other == shard ? 1 : 0;
+                assertThat(jdbc(other).queryForObject("SELECT COUNT(*) FROM duenios WHERE id = ?", Integer.class, id))
+                        .as("owner %d on shard %d", id, other).isEqualTo(expected);
+                assertThat(jdbc(other).queryForObject("SELECT COUNT(*) FROM mascotas WHERE duenio_id = ?", Integer.class, id))
+                        .as("pets of owner %d on shard %d", id, other).isEqualTo(expected);
+            }
+        }
+    }
+
+    private int countOn(int shard) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM duenios", Integer.class);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(databases.get(shard));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    // The real migrations on every shard, as ShardingConfig runs them at startup
+    private static void migrate(List<DataSource> shards) {
+        DataSource landing = shards.get(ShardRouter.LANDING_SHARD);
+        Flyway flyway = Flyway.configure()
+                .dataSource(landing)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load();
+        new ShardingConfig(null).shardedMigrationStrategy(new ShardRoutingDataSource(shards)).migrate(flyway);
+    }
+}